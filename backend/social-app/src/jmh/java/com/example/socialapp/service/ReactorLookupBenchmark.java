@@ -0,0 +1,160 @@
+package com.example.socialapp.service;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.roaringbitmap.RoaringBitmap;
+
+// ReactorBitmaps against the per-post query path it short-circuits: "did the
+// viewer like this" as an EXISTS probe on post_reactions, and "which of my
+// followees liked this" as the semi-join in PostReactionService. The tables
+// live in an in-memory H2 database (with result reuse off, so every call
+// really runs), so the query side has no network round trip and understates
+// what MySQL costs in production.
+//
+//   mvn -Pbenchmark test-compile exec:exec
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReactorLookupBenchmark {
+
+    private static final long POST_ID = 1;
+    private static final long VIEWER_ID = 0;
+    private static final int FOLLOWEES = 500;
+
+    @Param({ "1000", "100000" })
+    public int reactors;
+
+    private Connection connection;
+    private PreparedStatement exists;
+    private PreparedStatement followeesWhoLiked;
+    private RoaringBitmap likers;
+    private RoaringBitmap followees;
+    private int[] probes;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        Random random = new Random(42);
+        int userSpace = reactors * 10;
+        connection = DriverManager.getConnection("jdbc:h2:mem:reactors;MODE=MySQL;OPTIMIZE_REUSE_RESULTS=FALSE", "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE post_reactions (post_id BIGINT NOT NULL, user_id BIGINT NOT NULL, " +
+                "kind VARCHAR(10) NOT NULL, PRIMARY KEY (post_id, user_id))");
+            statement.execute("CREATE TABLE user_follows (follower_id BIGINT NOT NULL, followed_id BIGINT NOT NULL, " +
+                "PRIMARY KEY (follower_id, followed_id))");
+        }
+
+        likers = new RoaringBitmap();
+        try (PreparedStatement insert = connection.prepareStatement(
+                "MERGE INTO post_reactions (post_id, user_id, kind) VALUES (?, ?, ?)")) {
+            for (int i = 0; i < reactors; i++) {
+                int userId = 1 + random.nextInt(userSpace);
+                boolean like = random.nextInt(5) != 0;
+                insert.setLong(1, POST_ID);
+                insert.setLong(2, userId);
+                insert.setString(3, like ? "LIKE" : "DISLIKE");
+                insert.addBatch();
+                if (like) {
+                    likers.add(userId);
+                } else {
+                    likers.remove(userId);
+                }
+            }
+            insert.executeBatch();
+        }
+        likers.runOptimize();
+
+        followees = new RoaringBitmap();
+        try (PreparedStatement insert = connection.prepareStatement(
+                "MERGE INTO user_follows (follower_id, followed_id) VALUES (?, ?)")) {
+            for (int i = 0; i < FOLLOWEES; i++) {
+                int userId = 1 + random.nextInt(userSpace);
+                insert.setLong(1, VIEWER_ID);
+                insert.setLong(2, userId);
+                insert.addBatch();
+                followees.add(userId);
+            }
+            insert.executeBatch();
+        }
+
+        exists = connection.prepareStatement(
+            "SELECT EXISTS (SELECT 1 FROM post_reactions WHERE post_id = ? AND user_id = ? AND kind = 'LIKE')");
+        // MySQL turns PostReactionService's IN (subquery) into this join;
+        // H2 would run the subquery per row, so it is spelled out
+        followeesWhoLiked = connection.prepareStatement(
+            "SELECT r.user_id FROM user_follows f " +
+            "JOIN post_reactions r ON r.post_id = ? AND r.user_id = f.followed_id " +
+            "WHERE f.follower_id = ? AND r.kind = 'LIKE' ORDER BY r.user_id");
+
+        probes = new int[1024];
+        for (int i = 0; i < probes.length; i++) {
+            probes[i] = 1 + random.nextInt(userSpace);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    private int nextProbe() {
+        next = (next + 1) & (probes.length - 1);
+        return probes[next];
+    }
+
+    @Benchmark
+    public boolean likedExists() throws SQLException {
+        exists.setLong(1, POST_ID);
+        exists.setLong(2, nextProbe());
+        try (ResultSet rs = exists.executeQuery()) {
+            rs.next();
+            return rs.getBoolean(1);
+        }
+    }
+
+    @Benchmark
+    public boolean likedBitmap() {
+        return likers.contains(nextProbe());
+    }
+
+    @Benchmark
+    public int followeesWhoLikedSemiJoin() throws SQLException {
+        followeesWhoLiked.setLong(1, POST_ID);
+        followeesWhoLiked.setLong(2, VIEWER_ID);
+        int count = 0;
+        try (ResultSet rs = followeesWhoLiked.executeQuery()) {
+            while (rs.next()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int followeesWhoLikedBitmap() {
+        return RoaringBitmap.andCardinality(likers, followees);
+    }
+}
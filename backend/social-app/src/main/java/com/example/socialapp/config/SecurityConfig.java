@@ -2,6 +2,7 @@ package com.example.socialapp.config;
 
 import java.util.Arrays;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -15,8 +16,11 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 @EnableWebSecurity
 public class SecurityConfig {
 
+  // Metrics are served only on the management port, which listens on
+  // loopback unless MANAGEMENT_ADDRESS says otherwise
   @Bean
-  public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+  public SecurityFilterChain filterChain(HttpSecurity http,
+      @Value("${management.server.port:-1}") int managementPort) throws Exception {
     http
     .cors(cors -> cors.configurationSource(corsConfigurationSource()))
     .csrf(csrf -> csrf.disable())
@@ -32,6 +36,8 @@ public class SecurityConfig {
     .requestMatchers("/ws/**").permitAll()
     .requestMatchers("/images/**").permitAll()
     .requestMatchers("/uploads/**").permitAll()
+    .requestMatchers("/actuator/health").permitAll()
+    .requestMatchers(request -> managementPort > 0 && request.getLocalPort() == managementPort).permitAll()
     .anyRequest().authenticated()
     );
     return http.build();
@@ -47,6 +53,8 @@ public class SecurityConfig {
     ));
     configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
     configuration.setAllowedHeaders(Arrays.asList("*"));
+    // Lets browser clients read the feed pagination cursor
+    configuration.setExposedHeaders(Arrays.asList("X-Next-Cursor"));
     configuration.setAllowCredentials(true);
 
     UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -16,6 +16,7 @@ public class WebCorsConfig {
           .allowedOriginPatterns("http://localhost:*", "http://127.0.0.1:*")  // Changed from allowedOrigins
           .allowedMethods("GET","POST","PUT","PATCH","DELETE","OPTIONS")
           .allowedHeaders("*")
+          .exposedHeaders("X-Next-Cursor")
           .allowCredentials(true);
       }
     };
@@ -20,6 +20,7 @@ import org.springframework.web.bind.annotation.RestController;
 import com.example.socialapp.model.User;
 import com.example.socialapp.model.User.Role;
 import com.example.socialapp.repository.UserRepository;
+import com.example.socialapp.service.UserDeletionService;
 
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Email;
@@ -37,10 +38,13 @@ public class AdminController {
 
   private final UserRepository userRepository;
   private final PasswordEncoder passwordEncoder;
+  private final UserDeletionService userDeletionService;
 
-  public AdminController(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+  public AdminController(UserRepository userRepository, PasswordEncoder passwordEncoder,
+                         UserDeletionService userDeletionService) {
     this.userRepository = userRepository;
     this.passwordEncoder = passwordEncoder;
+    this.userDeletionService = userDeletionService;
   }
 
   // ===== DTOs =====
@@ -104,7 +108,7 @@ public class AdminController {
       return ResponseEntity.status(403).body(Map.of("error", "cannot_delete_admin"));
     }
     
-    userRepository.deleteById(id);
+    userDeletionService.delete(id);
     return ResponseEntity.ok(Map.of("message", "User deleted successfully"));
   }
 
@@ -0,0 +1,37 @@
+package com.example.socialapp.controller;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.springframework.util.DigestUtils;
+
+// Strong validators for conditional GETs. Tags are built from a handful of
+// change stamps (ids, last-modified times, row counts), never from the
+// serialized body, so they can be checked before any hydration runs.
+final class ETags {
+
+    private ETags() {}
+
+    static String of(Object... parts) {
+        byte[] stamps = Arrays.deepToString(parts).getBytes(StandardCharsets.UTF_8);
+        return "\"" + DigestUtils.md5DigestAsHex(stamps) + "\"";
+    }
+
+    // If-None-Match uses the weak comparison: W/ prefixes are ignored and any
+    // listed tag, or *, is a match
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -2,10 +2,12 @@ package com.example.socialapp.controller;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -19,10 +21,10 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.example.socialapp.model.Notification;
-import com.example.socialapp.model.Post;
-import com.example.socialapp.model.User;
+import com.example.socialapp.repository.PostImage;
 import com.example.socialapp.repository.PostRepository;
 import com.example.socialapp.repository.UserRepository;
+import com.example.socialapp.repository.UserSummary;
 import com.example.socialapp.service.NotificationService;
 
 @RestController
@@ -30,6 +32,8 @@ import com.example.socialapp.service.NotificationService;
 @CrossOrigin(origins = "http://127.0.0.1:5500", allowCredentials = "true")
 public class NotificationController {
 
+    private static final String DEFAULT_PROFILE_PICTURE = "images/default profile picture.jpg";
+
     private final NotificationService notificationService;
     private final UserRepository userRepository;
     private final PostRepository postRepository;
@@ -51,7 +55,8 @@ public class NotificationController {
         String commentText,
         String postImageUrl,
         String timeAgo,
-        Boolean isRead
+        Boolean isRead,
+        Integer actorCount
     ) {}
 
     // Get all notifications for a user
@@ -60,11 +65,7 @@ public class NotificationController {
         try {
             List<Notification> notifications = notificationService.getUserNotifications(userId);
 
-            List<NotificationResponse> response = notifications.stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
-
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(mapToResponses(notifications));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(Map.of("error", "Failed to fetch notifications"));
@@ -77,11 +78,7 @@ public class NotificationController {
         try {
             List<Notification> notifications = notificationService.getUnreadNotifications(userId);
 
-            List<NotificationResponse> response = notifications.stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
-
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(mapToResponses(notifications));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(Map.of("error", "Failed to fetch unread notifications"));
@@ -148,38 +145,54 @@ public class NotificationController {
         }
     }
 
-    // Helper method to map Notification to NotificationResponse
-    private NotificationResponse mapToResponse(Notification notification) {
-        String actorProfilePicture = "images/default profile picture.jpg";
-
-        if (notification.getActorId() != null) {
-            Optional<User> actor = userRepository.findById(notification.getActorId());
-            if (actor.isPresent() && actor.get().getProfilePictureUrl() != null) {
-                actorProfilePicture = actor.get().getProfilePictureUrl();
+    // Map a list of notifications to responses with one IN query for the
+    // actors' avatars and one for the posts' images, however long the list
+    private List<NotificationResponse> mapToResponses(List<Notification> notifications) {
+        Set<Long> actorIds = new HashSet<>();
+        Set<Long> postIds = new HashSet<>();
+        for (Notification notification : notifications) {
+            if (notification.getActorId() != null) {
+                actorIds.add(notification.getActorId());
+            }
+            if (notification.getPostId() != null) {
+                postIds.add(notification.getPostId());
             }
         }
 
-        // Get post image URL if notification has a postId
-        String postImageUrl = null;
-        if (notification.getPostId() != null) {
-            Optional<Post> post = postRepository.findById(notification.getPostId());
-            if (post.isPresent() && post.get().getImageUrl() != null) {
-                postImageUrl = post.get().getImageUrl();
+        Map<Long, String> avatars = new HashMap<>();
+        if (!actorIds.isEmpty()) {
+            for (UserSummary actor : userRepository.findSummariesByIdIn(actorIds)) {
+                if (actor.profilePictureUrl() != null) {
+                    avatars.put(actor.id(), actor.profilePictureUrl());
+                }
+            }
+        }
+        Map<Long, String> postImages = new HashMap<>();
+        if (!postIds.isEmpty()) {
+            for (PostImage post : postRepository.findImagesByIdIn(postIds)) {
+                if (post.imageUrl() != null) {
+                    postImages.put(post.id(), post.imageUrl());
+                }
             }
         }
 
-        return new NotificationResponse(
-            notification.getId(),
-            notification.getType(),
-            notification.getActorId(),
-            notification.getActorUsername(),
-            actorProfilePicture,
-            notification.getPostId(),
-            notification.getCommentText(),
-            postImageUrl,
-            getTimeAgo(notification.getCreatedAt()),
-            notification.getIsRead()
-        );
+        List<NotificationResponse> responses = new ArrayList<>(notifications.size());
+        for (Notification notification : notifications) {
+            responses.add(new NotificationResponse(
+                notification.getId(),
+                notification.getType(),
+                notification.getActorId(),
+                notification.getActorUsername(),
+                avatars.getOrDefault(notification.getActorId(), DEFAULT_PROFILE_PICTURE),
+                notification.getPostId(),
+                notification.getCommentText(),
+                postImages.get(notification.getPostId()),
+                getTimeAgo(notification.getCreatedAt()),
+                notification.getIsRead(),
+                notification.getActorCount()
+            ));
+        }
+        return responses;
     }
 
     // Helper method to calculate time ago
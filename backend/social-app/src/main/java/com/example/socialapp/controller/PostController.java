@@ -2,16 +2,26 @@ package com.example.socialapp.controller;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -19,18 +29,30 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.example.socialapp.model.Post;
 import com.example.socialapp.model.User;
+import com.example.socialapp.repository.PostKey;
 import com.example.socialapp.repository.PostRepository;
 import com.example.socialapp.repository.UserRepository;
-import com.example.socialapp.service.PostCommentService;
-import com.example.socialapp.service.PostDislikeService;
-import com.example.socialapp.service.PostLikeService;
+import com.example.socialapp.service.FeedCursor;
+import com.example.socialapp.service.FeedHydrationService;
+import com.example.socialapp.service.FeedHydrationService.HydratedPost;
+import com.example.socialapp.service.FeedStreamReader;
+import com.example.socialapp.service.HotCursor;
+import com.example.socialapp.service.HotRankingService;
+import com.example.socialapp.service.NewPostPublisher;
+import com.example.socialapp.service.PostChangeLog;
+import com.example.socialapp.service.PostViewCache;
+import com.example.socialapp.service.PostViewCache.PostView;
+import com.example.socialapp.service.TimelineService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 @RestController
 @RequestMapping("/api/posts")
@@ -42,19 +64,43 @@ public class PostController {
 
     private final PostRepository postRepository;
     private final UserRepository userRepository;
-    private final PostLikeService postLikeService;
-    private final PostDislikeService postDislikeService;
-    private final PostCommentService postCommentService;
+    private final FeedHydrationService feedHydrationService;
+    private final TimelineService timelineService;
+    private final PostViewCache postViewCache;
+    private final HotRankingService hotRankingService;
+    private final ObjectMapper objectMapper;
+    private final PostChangeLog postChangeLog;
+    private final NewPostPublisher newPostPublisher;
+    private final FeedStreamReader feedStreamReader;
+    private final int defaultPageSize;
+    private final int maxPageSize;
     private static final String UPLOAD_DIR = "target/classes/static/images/posts/";
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int STREAM_CHUNK_SIZE = 100;
 
     public PostController(PostRepository postRepository, UserRepository userRepository,
-                         PostLikeService postLikeService, PostDislikeService postDislikeService,
-                         PostCommentService postCommentService) {
+                         FeedHydrationService feedHydrationService,
+                         TimelineService timelineService,
+                         PostViewCache postViewCache,
+                         HotRankingService hotRankingService,
+                         ObjectMapper objectMapper,
+                         PostChangeLog postChangeLog,
+                         NewPostPublisher newPostPublisher,
+                         FeedStreamReader feedStreamReader,
+                         @Value("${feed.page-size:20}") int defaultPageSize,
+                         @Value("${feed.max-page-size:100}") int maxPageSize) {
         this.postRepository = postRepository;
         this.userRepository = userRepository;
-        this.postLikeService = postLikeService;
-        this.postDislikeService = postDislikeService;
-        this.postCommentService = postCommentService;
+        this.feedHydrationService = feedHydrationService;
+        this.timelineService = timelineService;
+        this.postViewCache = postViewCache;
+        this.hotRankingService = hotRankingService;
+        this.objectMapper = objectMapper;
+        this.postChangeLog = postChangeLog;
+        this.newPostPublisher = newPostPublisher;
+        this.feedStreamReader = feedStreamReader;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
         
         try {
             File uploadDir = new File(UPLOAD_DIR);
@@ -86,24 +132,45 @@ public class PostController {
         boolean userDisliked
     ) {}
 
-    private PostResponse mapToResponse(Post post, Long currentUserId) {
+    private PostResponse mapToResponse(Long postId, Long currentUserId) {
+        List<PostResponse> responses = mapToResponses(List.of(postId), currentUserId);
+        return responses.isEmpty() ? null : responses.get(0);
+    }
+
+    // Hydrates a whole page of posts with a fixed number of queries
+    private List<PostResponse> mapToResponses(List<Long> postIds, Long currentUserId) {
+        return feedHydrationService.hydrate(postIds, currentUserId).stream()
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
+    }
+
+    private PostResponse mapToResponse(HydratedPost hydrated) {
+        PostView post = hydrated.post();
         return new PostResponse(
-            post.getId(),
-            post.getUser().getId(),
-            post.getUser().getUsername(),
-            post.getUser().getProfilePictureUrl(),
-            post.getContent(),
-            post.getImageUrl(),
-            post.getCreatedAt(),
-            post.getUpdatedAt(),
-            postLikeService.getLikeCount(post.getId()),
-            postDislikeService.getDislikeCount(post.getId()),
-            postCommentService.getCommentCount(post.getId()),
-            currentUserId != null ? postLikeService.hasUserLiked(post.getId(), currentUserId) : false,
-            currentUserId != null ? postDislikeService.hasUserDisliked(post.getId(), currentUserId) : false
+            post.id(),
+            post.userId(),
+            post.username(),
+            post.userProfilePicture(),
+            post.content(),
+            post.imageUrl(),
+            post.createdAt(),
+            post.updatedAt(),
+            post.likeCount(),
+            post.dislikeCount(),
+            post.commentCount(),
+            hydrated.userLiked(),
+            hydrated.userDisliked()
         );
     }
 
+    public record DeltaResponse(
+        List<PostResponse> created,
+        List<Long> deleted,
+        List<PostResponse> changed,
+        long cursor,
+        boolean hasMore
+    ) {}
+
     @PostMapping
     public ResponseEntity<?> createPost(
             @RequestParam("userId") Long userId,
@@ -140,8 +207,12 @@ public class PostController {
 
             Post post = new Post(user, content, imageUrl);
             post = postRepository.save(post);
+            timelineService.fanOut(post);
+            hotRankingService.track(post);
+            postChangeLog.append(post.getId(), PostChangeLog.ChangeType.CREATED);
+            newPostPublisher.postCreated(post);
 
-            PostResponse response = mapToResponse(post, userId);
+            PostResponse response = mapToResponse(post.getId(), userId);
 
             System.out.println("[PostController] Post created successfully with ID: " + post.getId());
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
@@ -154,27 +225,226 @@ public class PostController {
         }
     }
 
+    // Feed pages are keyset-paginated: pass the X-Next-Cursor header of one page
+    // as ?cursor= to get the next one. No header means there are no more posts.
+    // sort=new (default) is newest first; sort=hot ranks by HotRankingService.
     @GetMapping
-    public ResponseEntity<List<PostResponse>> getAllPosts(
-            @RequestParam(value = "userId", required = false) Long userId) {
-        List<Post> posts = postRepository.findAllByOrderByCreatedAtDesc();
-        List<PostResponse> response = posts.stream()
-                .map(post -> mapToResponse(post, userId))
-                .collect(Collectors.toList());
-        
-        return ResponseEntity.ok(response);
+    public ResponseEntity<?> getAllPosts(
+            @RequestParam(value = "userId", required = false) Long userId,
+            @RequestParam(value = "sort", required = false) String sort,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        try {
+            int pageSize = pageSize(limit);
+            if ("hot".equalsIgnoreCase(sort)) {
+                HotCursor after = cursor == null || cursor.isBlank() ? null : HotCursor.decode(cursor);
+                HotRankingService.HotPage page = hotRankingService.getPage(after, pageSize);
+                String next = page.nextCursor() == null ? null : page.nextCursor().encode();
+                return pageResponse(page.postIds(), next, userId, ifNoneMatch);
+            }
+            if (sort != null && !sort.isBlank() && !"new".equalsIgnoreCase(sort)) {
+                return ResponseEntity.badRequest().body("Unknown sort: " + sort);
+            }
+            List<PostKey> keys;
+            if (cursor == null || cursor.isBlank()) {
+                keys = postRepository.findFeedKeys(Limit.of(pageSize));
+            } else {
+                FeedCursor after = FeedCursor.decode(cursor);
+                keys = postRepository.findFeedKeysAfter(after.createdAt(), after.id(), Limit.of(pageSize));
+            }
+            return pageResponse(ids(keys), encode(nextCursor(keys, pageSize)), userId, ifNoneMatch);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<PostResponse>> getUserPosts(
+    public ResponseEntity<?> getUserPosts(
             @PathVariable Long userId,
-            @RequestParam(value = "currentUserId", required = false) Long currentUserId) {
-        List<Post> posts = postRepository.findByUserIdOrderByCreatedAtDesc(userId);
-        List<PostResponse> response = posts.stream()
-                .map(post -> mapToResponse(post, currentUserId))
+            @RequestParam(value = "currentUserId", required = false) Long currentUserId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        try {
+            int pageSize = pageSize(limit);
+            List<PostKey> keys;
+            if (cursor == null || cursor.isBlank()) {
+                keys = postRepository.findUserKeys(userId, Limit.of(pageSize));
+            } else {
+                FeedCursor after = FeedCursor.decode(cursor);
+                keys = postRepository.findUserKeysAfter(userId, after.createdAt(), after.id(), Limit.of(pageSize));
+            }
+            return pageResponse(ids(keys), encode(nextCursor(keys, pageSize)), currentUserId, ifNoneMatch);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // What changed since a polling client's cursor: new posts, deleted ids and
+    // posts whose content or counts changed. Without ?since= only the current
+    // cursor is returned, to poll from after loading the feed. hasMore means
+    // the client should call again right away with the returned cursor; 410
+    // means the cursor is older than the retained log and the feed must be
+    // reloaded.
+    @GetMapping("/delta")
+    public ResponseEntity<?> getDelta(
+            @RequestParam(value = "since", required = false) Long since,
+            @RequestParam(value = "userId", required = false) Long userId) {
+        if (since == null) {
+            return ResponseEntity.ok(new DeltaResponse(List.of(), List.of(), List.of(),
+                postChangeLog.latestCursor(), false));
+        }
+        if (postChangeLog.isExpired(since)) {
+            return ResponseEntity.status(HttpStatus.GONE).body("Cursor expired; reload the feed");
+        }
+
+        PostChangeLog.ChangeSet changes = postChangeLog.since(since);
+        List<Long> toHydrate = new ArrayList<>(changes.created());
+        toHydrate.addAll(changes.changed());
+        Map<Long, PostResponse> hydrated = new HashMap<>();
+        for (PostResponse response : mapToResponses(toHydrate, userId)) {
+            hydrated.put(response.id(), response);
+        }
+
+        return ResponseEntity.ok(new DeltaResponse(
+            responsesFor(changes.created(), hydrated),
+            changes.deleted(),
+            responsesFor(changes.changed(), hydrated),
+            changes.cursor(),
+            changes.hasMore()
+        ));
+    }
+
+    private List<PostResponse> responsesFor(List<Long> postIds, Map<Long, PostResponse> hydrated) {
+        return postIds.stream()
+                .map(hydrated::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
-        
-        return ResponseEntity.ok(response);
+    }
+
+    // Last line of an NDJSON stream cut off by feed.stream.max-seconds
+    public record StreamContinuation(String nextCursor) {}
+
+    // Newline-delimited JSON variants of the two feeds above: one PostResponse
+    // per line, written and flushed a chunk at a time while the database cursor
+    // is still being read, so the first post arrives before the last is hydrated.
+    // A stream that runs out of time ends with a {"nextCursor": ...} line; pass
+    // it as ?cursor= to carry on from there.
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<?> streamAllPosts(
+            @RequestParam(value = "userId", required = false) Long userId,
+            @RequestParam(value = "cursor", required = false) String cursor) {
+        return ndjson(null, cursor, userId);
+    }
+
+    @GetMapping(value = "/user/{userId}/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<?> streamUserPosts(
+            @PathVariable Long userId,
+            @RequestParam(value = "currentUserId", required = false) Long currentUserId,
+            @RequestParam(value = "cursor", required = false) String cursor) {
+        return ndjson(userId, cursor, currentUserId);
+    }
+
+    // 503 when feed.stream.max-concurrent streams are already open
+    private ResponseEntity<?> ndjson(Long authorId, String cursor, Long viewerId) {
+        FeedCursor after;
+        try {
+            after = cursor == null || cursor.isBlank() ? null : FeedCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        if (!feedStreamReader.tryAcquire()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .build();
+        }
+        StreamingResponseBody body = out -> {
+            try {
+                FeedCursor next = feedHydrationService.stream(authorId, after, viewerId, STREAM_CHUNK_SIZE, chunk -> {
+                    try {
+                        for (HydratedPost post : chunk) {
+                            out.write(objectMapper.writeValueAsBytes(mapToResponse(post)));
+                            out.write('\n');
+                        }
+                        out.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                if (next != null) {
+                    out.write(objectMapper.writeValueAsBytes(new StreamContinuation(next.encode())));
+                    out.write('\n');
+                    out.flush();
+                }
+            } catch (UncheckedIOException e) {
+                // Usually the client going away mid-stream
+                System.err.println("[PostController] Feed stream aborted: " + e.getCause().getMessage());
+            } finally {
+                feedStreamReader.release();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    private int pageSize(Integer limit) {
+        if (limit == null) {
+            return defaultPageSize;
+        }
+        return Math.max(1, Math.min(limit, maxPageSize));
+    }
+
+    // Posts from the user and the accounts they follow, newest first
+    @GetMapping("/timeline")
+    public ResponseEntity<?> getTimeline(
+            @RequestParam("userId") Long userId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        try {
+            FeedCursor after = cursor == null || cursor.isBlank() ? null : FeedCursor.decode(cursor);
+            TimelineService.TimelinePage page = timelineService.getPage(userId, after, pageSize(limit));
+            return pageResponse(page.postIds(), encode(page.nextCursor()), userId, ifNoneMatch);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // A full page may have more rows behind it; a short page is the last one
+    private FeedCursor nextCursor(List<PostKey> keys, int pageSize) {
+        if (keys.size() < pageSize) {
+            return null;
+        }
+        PostKey last = keys.get(keys.size() - 1);
+        return FeedCursor.of(last.createdAt(), last.id());
+    }
+
+    private String encode(FeedCursor cursor) {
+        return cursor == null ? null : cursor.encode();
+    }
+
+    private List<Long> ids(List<PostKey> keys) {
+        return keys.stream().map(PostKey::id).collect(Collectors.toList());
+    }
+
+    // The ETag covers the page's ids, edit times, counts and authors' profile
+    // changes plus the viewer, and is checked before hydration, so polling an
+    // unchanged page costs one narrow query and no body
+    private ResponseEntity<List<PostResponse>> pageResponse(List<Long> postIds, String next,
+                                                            Long currentUserId, String ifNoneMatch) {
+        String etag = ETags.of(currentUserId, next, feedHydrationService.versions(postIds));
+        boolean notModified = ETags.matches(ifNoneMatch, etag);
+
+        ResponseEntity.BodyBuilder builder = notModified
+                ? ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                : ResponseEntity.ok();
+        builder.eTag(etag).cacheControl(CacheControl.noCache());
+        if (next != null) {
+            builder.header(NEXT_CURSOR_HEADER, next);
+        }
+        return notModified ? builder.build() : builder.body(mapToResponses(postIds, currentUserId));
     }
 
     @PutMapping("/{postId}")
@@ -195,8 +465,10 @@ public class PostController {
             post.setContent(content);
             post.setUpdatedAt(Instant.now());
             post = postRepository.save(post);
+            postViewCache.invalidate(postId);
+            postChangeLog.append(postId, PostChangeLog.ChangeType.UPDATED);
 
-            PostResponse response = mapToResponse(post, userId);
+            PostResponse response = mapToResponse(postId, userId);
 
             return ResponseEntity.ok(response);
             
@@ -245,6 +517,9 @@ public class PostController {
             }
 
             postRepository.delete(post);
+            postViewCache.invalidate(postId);
+            hotRankingService.untrack(postId);
+            postChangeLog.append(postId, PostChangeLog.ChangeType.DELETED);
             System.out.println("[PostController] Post deleted successfully: " + postId);
             return ResponseEntity.ok("Post deleted successfully");
             
@@ -1,10 +1,14 @@
 
 package com.example.socialapp.controller;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -12,14 +16,24 @@ import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.socialapp.model.User;
+import com.example.socialapp.repository.CommentsVersion;
+import com.example.socialapp.repository.PostCounters;
+import com.example.socialapp.repository.UserRepository;
+import com.example.socialapp.service.FeedCursor;
 import com.example.socialapp.service.PostCommentService;
+import com.example.socialapp.service.PostCounterService;
 import com.example.socialapp.service.PostDislikeService;
 import com.example.socialapp.service.PostLikeService;
+import com.example.socialapp.service.PostReactionService;
+import com.example.socialapp.service.PostReactionService.Reaction;
 
 @RestController
 @RequestMapping("/api/posts")
@@ -29,18 +43,39 @@ import com.example.socialapp.service.PostLikeService;
 })
 public class PostInteractionController {
 
+    private static final int MAX_REPLIES_PER_THREAD = 20;
+
     private final PostLikeService postLikeService;
     private final PostDislikeService postDislikeService;
     private final PostCommentService postCommentService;
+    private final PostCounterService postCounterService;
+    private final PostReactionService postReactionService;
+    private final UserRepository userRepository;
+    private final int commentPageSize;
+    private final int maxCommentPageSize;
 
     public PostInteractionController(PostLikeService postLikeService,
                                      PostDislikeService postDislikeService,
-                                     PostCommentService postCommentService) {
+                                     PostCommentService postCommentService,
+                                     PostCounterService postCounterService,
+                                     PostReactionService postReactionService,
+                                     UserRepository userRepository,
+                                     @Value("${comments.page-size:20}") int commentPageSize,
+                                     @Value("${comments.max-page-size:100}") int maxCommentPageSize) {
         this.postLikeService = postLikeService;
         this.postDislikeService = postDislikeService;
         this.postCommentService = postCommentService;
+        this.postCounterService = postCounterService;
+        this.postReactionService = postReactionService;
+        this.userRepository = userRepository;
+        this.commentPageSize = commentPageSize;
+        this.maxCommentPageSize = maxCommentPageSize;
     }
 
+    public record FolloweeSummary(Long id, String username, String profilePictureUrl) {}
+
+    public record LikedByFolloweesResponse(long count, List<FolloweeSummary> users) {}
+
     // ========== LIKE ENDPOINTS ==========
 
     @PostMapping("/{postId}/like")
@@ -50,13 +85,7 @@ public class PostInteractionController {
         try {
             postLikeService.toggleLike(postId, userId);
             
-            Map<String, Object> response = new HashMap<>();
-            response.put("likeCount", postLikeService.getLikeCount(postId));
-            response.put("dislikeCount", postDislikeService.getDislikeCount(postId));
-            response.put("userLiked", postLikeService.hasUserLiked(postId, userId));
-            response.put("userDisliked", postDislikeService.hasUserDisliked(postId, userId));
-            
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(reactionResponse(postId, userId));
         } catch (Exception e) {
             System.err.println("[PostInteractionController] Error toggling like: " + e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -73,13 +102,7 @@ public class PostInteractionController {
         try {
             postDislikeService.toggleDislike(postId, userId);
             
-            Map<String, Object> response = new HashMap<>();
-            response.put("likeCount", postLikeService.getLikeCount(postId));
-            response.put("dislikeCount", postDislikeService.getDislikeCount(postId));
-            response.put("userLiked", postLikeService.hasUserLiked(postId, userId));
-            response.put("userDisliked", postDislikeService.hasUserDisliked(postId, userId));
-            
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(reactionResponse(postId, userId));
         } catch (Exception e) {
             System.err.println("[PostInteractionController] Error toggling dislike: " + e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -87,6 +110,85 @@ public class PostInteractionController {
         }
     }
 
+    // Counts after a toggle, read from the post's counter columns in one query
+    private Map<String, Object> reactionResponse(Long postId, Long userId) {
+        PostCounters counters = postCounterService.getCounters(postId);
+        Map<String, Object> response = new HashMap<>();
+        response.put("likeCount", counters.likeCount());
+        response.put("dislikeCount", counters.dislikeCount());
+        response.put("userLiked", postLikeService.hasUserLiked(postId, userId));
+        response.put("userDisliked", postDislikeService.hasUserDisliked(postId, userId));
+        return response;
+    }
+
+    // ========== REACTION ENDPOINT ==========
+
+    // Sets the reaction to LIKE, DISLIKE or NONE (plain text body; a JSON
+    // string also works). Idempotent, unlike the toggles above.
+    @PutMapping("/{postId}/reaction")
+    public ResponseEntity<?> setReaction(
+            @PathVariable Long postId,
+            @RequestParam("userId") Long userId,
+            @RequestBody String body) {
+        Reaction reaction;
+        try {
+            reaction = Reaction.valueOf(body.trim().replace("\"", "").toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Reaction must be LIKE, DISLIKE or NONE");
+        }
+
+        try {
+            PostReactionService.ReactionResult result = postReactionService.setReaction(postId, userId, reaction)
+                    .orElse(null);
+            if (result == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Post not found");
+            }
+            Map<String, Object> response = new HashMap<>();
+            response.put("reaction", result.reaction());
+            response.put("likeCount", result.likeCount());
+            response.put("dislikeCount", result.dislikeCount());
+            response.put("userLiked", result.reaction() == Reaction.LIKE);
+            response.put("userDisliked", result.reaction() == Reaction.DISLIKE);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            if ("User not found".equals(e.getMessage())) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+            }
+            System.err.println("[PostInteractionController] Error setting reaction: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error setting reaction: " + e.getMessage());
+        }
+    }
+
+    // Which of the viewer's followees liked the post: the total, and up to
+    // limit of them with their profile basics
+    @GetMapping("/{postId}/liked-by-followees")
+    public ResponseEntity<?> getLikedByFollowees(
+            @PathVariable Long postId,
+            @RequestParam("userId") Long userId,
+            @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        try {
+            List<Long> likerIds = postReactionService.findLikersFollowedBy(postId, userId);
+            List<Long> shownIds = likerIds.subList(0, Math.min(Math.max(limit, 0), likerIds.size()));
+            Map<Long, User> users = new HashMap<>();
+            for (User user : userRepository.findAllById(shownIds)) {
+                users.put(user.getId(), user);
+            }
+            List<FolloweeSummary> summaries = new ArrayList<>(shownIds.size());
+            for (Long id : shownIds) {
+                User user = users.get(id);
+                if (user != null) {
+                    summaries.add(new FolloweeSummary(user.getId(), user.getUsername(), user.getProfilePictureUrl()));
+                }
+            }
+            return ResponseEntity.ok(new LikedByFolloweesResponse(likerIds.size(), summaries));
+        } catch (Exception e) {
+            System.err.println("[PostInteractionController] Error fetching followee likes: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error fetching followee likes: " + e.getMessage());
+        }
+    }
+
     // ========== COMMENT ENDPOINTS ==========
 
     @PostMapping("/{postId}/comments")
@@ -100,8 +202,16 @@ public class PostInteractionController {
                 return ResponseEntity.badRequest().body("Comment text cannot be empty");
             }
 
-            PostCommentService.CommentResponse comment = postCommentService.createComment(postId, userId, commentText);
+            // Optional: the comment being replied to
+            String parent = payload.get("parentId");
+            Long parentId = parent == null || parent.isBlank() ? null : Long.valueOf(parent);
+
+            PostCommentService.CommentResponse comment = postCommentService.createComment(postId, userId, commentText, parentId);
             return ResponseEntity.status(HttpStatus.CREATED).body(comment);
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().body("Invalid parentId");
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
             System.err.println("[PostInteractionController] Error creating comment: " + e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -109,11 +219,42 @@ public class PostInteractionController {
         }
     }
 
+    // Top-level comments only (replies are under /comments/{id}/replies),
+    // keyset-paginated like the feed: pass the X-Next-Cursor header of one
+    // page as ?cursor= to get the next one. Adding, editing or
+    // deleting a comment, or a commenter changing their profile, changes the
+    // version, so an unchanged page is answered with 304 before any comment
+    // is loaded.
     @GetMapping("/{postId}/comments")
-    public ResponseEntity<?> getComments(@PathVariable Long postId) {
+    public ResponseEntity<?> getComments(
+            @PathVariable Long postId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
-            List<PostCommentService.CommentResponse> comments = postCommentService.getCommentsByPostId(postId);
-            return ResponseEntity.ok(comments);
+            FeedCursor after = cursor == null || cursor.isBlank() ? null : FeedCursor.decode(cursor);
+            int pageSize = commentPageSize(limit);
+
+            CommentsVersion version = postCommentService.getCommentsVersion(postId);
+            String etag = ETags.of(postId, version.count(), version.maxId(), version.lastModified(),
+                version.authorsModified(), cursor, pageSize);
+            if (ETags.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(etag)
+                        .cacheControl(CacheControl.noCache())
+                        .build();
+            }
+
+            PostCommentService.CommentPage page = postCommentService.getCommentsPage(postId, after, pageSize);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache());
+            if (page.nextCursor() != null) {
+                response.header(PostController.NEXT_CURSOR_HEADER, page.nextCursor().encode());
+            }
+            return response.body(page.comments());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
             System.err.println("[PostInteractionController] Error fetching comments: " + e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -121,6 +262,61 @@ public class PostInteractionController {
         }
     }
 
+    // Top-level comments, newest first and paginated like the flat list, each
+    // with the first `replies` comments of its thread in reading order
+    @GetMapping("/{postId}/comments/threads")
+    public ResponseEntity<?> getCommentThreads(
+            @PathVariable Long postId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "replies", defaultValue = "3") int replies) {
+        try {
+            FeedCursor after = cursor == null || cursor.isBlank() ? null : FeedCursor.decode(cursor);
+            PostCommentService.ThreadPage page = postCommentService.getThreadsPage(postId, after,
+                commentPageSize(limit), Math.max(0, Math.min(replies, MAX_REPLIES_PER_THREAD)));
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.nextCursor() != null) {
+                response.header(PostController.NEXT_CURSOR_HEADER, page.nextCursor().encode());
+            }
+            return response.body(page.threads());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            System.err.println("[PostInteractionController] Error fetching comment threads: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error fetching comment threads: " + e.getMessage());
+        }
+    }
+
+    // Everything below a comment, depth-first with the oldest reply first
+    @GetMapping("/comments/{commentId}/replies")
+    public ResponseEntity<?> getReplies(
+            @PathVariable Long commentId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        try {
+            PostCommentService.ReplyPage page = postCommentService.getRepliesPage(commentId, cursor, commentPageSize(limit));
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.nextCursor() != null) {
+                response.header(PostController.NEXT_CURSOR_HEADER, page.nextCursor());
+            }
+            return response.body(page.replies());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            if ("Comment not found".equals(e.getMessage())) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+            }
+            System.err.println("[PostInteractionController] Error fetching replies: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error fetching replies: " + e.getMessage());
+        }
+    }
+
+    private int commentPageSize(Integer limit) {
+        return limit == null ? commentPageSize : Math.max(1, Math.min(limit, maxCommentPageSize));
+    }
+
     @DeleteMapping("/comments/{commentId}")
     public ResponseEntity<?> deleteComment(
             @PathVariable Long commentId,
@@ -144,10 +340,11 @@ public class PostInteractionController {
             @PathVariable Long postId,
             @RequestParam(value = "userId", required = false) Long userId) {
         try {
+            PostCounters counters = postCounterService.getCounters(postId);
             Map<String, Object> stats = new HashMap<>();
-            stats.put("likeCount", postLikeService.getLikeCount(postId));
-            stats.put("dislikeCount", postDislikeService.getDislikeCount(postId));
-            stats.put("commentCount", postCommentService.getCommentCount(postId));
+            stats.put("likeCount", counters.likeCount());
+            stats.put("dislikeCount", counters.dislikeCount());
+            stats.put("commentCount", counters.commentCount());
             
             if (userId != null) {
                 stats.put("userLiked", postLikeService.hasUserLiked(postId, userId));
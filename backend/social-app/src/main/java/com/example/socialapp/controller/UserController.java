@@ -6,7 +6,8 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
-import java.util.HashMap;
+import java.time.Instant;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -14,6 +15,9 @@ import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -22,6 +26,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -30,6 +35,8 @@ import org.springframework.web.multipart.MultipartFile;
 import com.example.socialapp.model.User;
 import com.example.socialapp.repository.UserRepository;
 import com.example.socialapp.service.NotificationService;
+import com.example.socialapp.service.PostViewCache;
+import com.example.socialapp.service.SuggestionService;
 import com.example.socialapp.service.UserFollowService;
 
 import jakarta.servlet.http.HttpSession;
@@ -43,13 +50,26 @@ public class UserController {
   private final UserRepository userRepository;
   private final UserFollowService userFollowService;
   private final NotificationService notificationService;
+  private final SuggestionService suggestionService;
+  private final PostViewCache postViewCache;
+  private final int defaultFollowPageSize;
+  private final int maxFollowPageSize;
+  private static final int MAX_FOLLOW_STATE_USERS = 500;
   private static final String UPLOAD_DIR = "target/classes/static/images/";
   private static final Logger logger = LoggerFactory.getLogger(UserController.class);
 
-  public UserController(UserRepository userRepository, UserFollowService userFollowService, NotificationService notificationService) {
+  public UserController(UserRepository userRepository, UserFollowService userFollowService, NotificationService notificationService,
+                        SuggestionService suggestionService,
+                        PostViewCache postViewCache,
+                        @Value("${follows.page-size:50}") int defaultFollowPageSize,
+                        @Value("${follows.max-page-size:200}") int maxFollowPageSize) {
     this.userRepository = userRepository;
     this.userFollowService = userFollowService;
     this.notificationService = notificationService;
+    this.suggestionService = suggestionService;
+    this.postViewCache = postViewCache;
+    this.defaultFollowPageSize = defaultFollowPageSize;
+    this.maxFollowPageSize = maxFollowPageSize;
     // Create images directory if it doesn't exist
     try {
     File uploadDir = new File(UPLOAD_DIR);
@@ -142,10 +162,27 @@ public class UserController {
   }
 
   // GET user profile by username
+  // Every profile change bumps users.updated_at, so id + updated_at is a strong
+  // validator; a matching If-None-Match is answered with 304 and no body
   @GetMapping("/{username}")
-  public ResponseEntity<?> getUserProfile(@PathVariable String username) {
+  public ResponseEntity<?> getUserProfile(
+    @PathVariable String username,
+    @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
     return userRepository.findByUsername(username.toLowerCase())
-    .<ResponseEntity<?>>map(u -> ResponseEntity.ok(new UserProfileResponse(
+    .<ResponseEntity<?>>map(u -> {
+    Instant lastModified = u.getUpdatedAt() != null ? u.getUpdatedAt() : u.getCreatedAt();
+    String etag = ETags.of(u.getId(), lastModified);
+    if (ETags.matches(ifNoneMatch, etag)) {
+    return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+    .eTag(etag)
+    .cacheControl(CacheControl.noCache())
+    .build();
+    }
+    return ResponseEntity.ok()
+    .eTag(etag)
+    .lastModified(lastModified)
+    .cacheControl(CacheControl.noCache())
+    .body(new UserProfileResponse(
     u.getId(),
     u.getUsername(),
     u.getEmail(),
@@ -154,7 +191,8 @@ public class UserController {
     u.getMajor(),
     u.getMinor(),
     u.getProfilePictureUrl()
-    )))
+    ));
+    })
     .orElseGet(() -> ResponseEntity.status(404).body(Map.of("error", "user_not_found")));
   }
 
@@ -174,6 +212,8 @@ public class UserController {
     user.setMinor(request.minor());
 
     userRepository.save(user);
+    // The save bumps updated_at, which feed ETags include
+    postViewCache.invalidateAuthor(user.getId());
 
     return ResponseEntity.ok(new UserProfileResponse(
     user.getId(),
@@ -234,6 +274,7 @@ public class UserController {
     String imageUrl = "images/" + originalFilename;
     user.setProfilePictureUrl(imageUrl);
     userRepository.save(user);
+    postViewCache.invalidateAuthor(user.getId());
     
     System.out.println("[UserController] User profile updated with image URL: " + imageUrl);
 
@@ -378,6 +419,33 @@ public class UserController {
     ));
   }
 
+  public record FollowStateRequest(Long viewerId, List<Long> userIds) {}
+
+  // isFollowing, followsYou and both counts for a whole list of users in
+  // one call, instead of three calls per user card
+  @PostMapping("/follow-state")
+  public ResponseEntity<?> getFollowStates(@RequestBody FollowStateRequest request) {
+    if (request.userIds() == null || request.userIds().isEmpty()) {
+    return ResponseEntity.ok(List.of());
+    }
+    LinkedHashSet<Long> userIds = new LinkedHashSet<>(request.userIds());
+    userIds.remove(null);
+    if (userIds.size() > MAX_FOLLOW_STATE_USERS) {
+    return ResponseEntity.badRequest().body(Map.of(
+    "error", "At most " + MAX_FOLLOW_STATE_USERS + " users per request"
+    ));
+    }
+
+    try {
+    return ResponseEntity.ok(userFollowService.getFollowStates(request.viewerId(), userIds));
+    } catch (Exception e) {
+    System.err.println("[UserController] Error loading follow states: " + e.getMessage());
+    logger.error("Error loading follow states", e);
+    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+    .body(Map.of("error", "Failed to load follow states"));
+    }
+  }
+
   // Get follower count
   @GetMapping("/{userId}/followers/count")
   public ResponseEntity<?> getFollowerCount(@PathVariable Long userId) {
@@ -392,27 +460,17 @@ public class UserController {
     return ResponseEntity.ok(Map.of("count", count));
   }
 
-  // Get list of followers
+  // Followers, most recent first. Pass the X-Next-Cursor header of one page
+  // as ?cursor= to get the next one; with ?viewerId= each entry says whether
+  // the viewer follows that user.
   @GetMapping("/{userId}/followers")
-  public ResponseEntity<?> getUserFollowers(@PathVariable Long userId) {
-    System.out.println("[UserController] Get followers request for userId: " + userId);
-    
+  public ResponseEntity<?> getUserFollowers(
+    @PathVariable Long userId,
+    @RequestParam(value = "cursor", required = false) Long cursor,
+    @RequestParam(value = "limit", required = false) Integer limit,
+    @RequestParam(value = "viewerId", required = false) Long viewerId) {
     try {
-    List<User> followers = userFollowService.getFollowers(userId);
-    
-    List<Map<String, Object>> followerList = followers.stream()
-    .map(follower -> {
-    Map<String, Object> followerData = new HashMap<>();
-    followerData.put("id", follower.getId());
-    followerData.put("username", follower.getUsername());
-    followerData.put("profilePictureUrl", follower.getProfilePictureUrl());
-    return followerData;
-    })
-    .collect(Collectors.toList());
-    
-    System.out.println("[UserController] Returning " + followerList.size() + " followers");
-    return ResponseEntity.ok(followerList);
-    
+    return followPageResponse(userFollowService.getFollowers(userId, cursor, followPageSize(limit), viewerId));
     } catch (Exception e) {
     System.err.println("[UserController] Error loading followers: " + e.getMessage());
     logger.error("Error loading followers", e);
@@ -420,4 +478,86 @@ public class UserController {
     .body(Map.of("error", "Failed to load followers"));
     }
   }
-}
\ No newline at end of file
+
+  // Accounts the user follows, paginated like the followers list
+  @GetMapping("/{userId}/following")
+  public ResponseEntity<?> getUserFollowing(
+    @PathVariable Long userId,
+    @RequestParam(value = "cursor", required = false) Long cursor,
+    @RequestParam(value = "limit", required = false) Integer limit,
+    @RequestParam(value = "viewerId", required = false) Long viewerId) {
+    try {
+    return followPageResponse(userFollowService.getFollowing(userId, cursor, followPageSize(limit), viewerId));
+    } catch (Exception e) {
+    System.err.println("[UserController] Error loading following: " + e.getMessage());
+    logger.error("Error loading following", e);
+    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+    .body(Map.of("error", "Failed to load following"));
+    }
+  }
+
+  // The user's followers that the viewer follows, by user id; paginated
+  // with X-Next-Cursor like the followers list
+  @GetMapping("/{userId}/followers/followed-by-you")
+  public ResponseEntity<?> getFollowersFollowedBy(
+    @PathVariable Long userId,
+    @RequestParam Long viewerId,
+    @RequestParam(value = "cursor", required = false) Long cursor,
+    @RequestParam(value = "limit", required = false) Integer limit) {
+    try {
+    return followPageResponse(userFollowService.getFollowersFollowedBy(userId, viewerId, cursor, followPageSize(limit)));
+    } catch (Exception e) {
+    System.err.println("[UserController] Error loading followers followed by viewer: " + e.getMessage());
+    logger.error("Error loading followers followed by viewer", e);
+    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+    .body(Map.of("error", "Failed to load followers"));
+    }
+  }
+
+  // Users who follow and are followed by both the user and the viewer
+  @GetMapping("/{userId}/mutual-friends")
+  public ResponseEntity<?> getMutualFriends(
+    @PathVariable Long userId,
+    @RequestParam Long viewerId,
+    @RequestParam(value = "cursor", required = false) Long cursor,
+    @RequestParam(value = "limit", required = false) Integer limit) {
+    try {
+    return followPageResponse(userFollowService.getMutualFriends(userId, viewerId, cursor, followPageSize(limit)));
+    } catch (Exception e) {
+    System.err.println("[UserController] Error loading mutual friends: " + e.getMessage());
+    logger.error("Error loading mutual friends", e);
+    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+    .body(Map.of("error", "Failed to load mutual friends"));
+    }
+  }
+
+  // People the user may know: followed by accounts they follow, best first
+  @GetMapping("/{userId}/suggestions")
+  public ResponseEntity<?> getSuggestions(
+    @PathVariable Long userId,
+    @RequestParam(value = "limit", defaultValue = "10") int limit) {
+    try {
+    return ResponseEntity.ok(suggestionService.getSuggestions(userId, Math.max(1, Math.min(limit, 50))));
+    } catch (Exception e) {
+    System.err.println("[UserController] Error loading suggestions: " + e.getMessage());
+    logger.error("Error loading suggestions", e);
+    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+    .body(Map.of("error", "Failed to load suggestions"));
+    }
+  }
+
+  private int followPageSize(Integer limit) {
+    if (limit == null) {
+    return defaultFollowPageSize;
+    }
+    return Math.max(1, Math.min(limit, maxFollowPageSize));
+  }
+
+  private ResponseEntity<?> followPageResponse(UserFollowService.FollowPage page) {
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+    if (page.nextCursor() != null) {
+    response.header(PostController.NEXT_CURSOR_HEADER, page.nextCursor().toString());
+    }
+    return response.body(page.users());
+  }
+}
@@ -41,6 +41,16 @@ public class Notification {
     @Column(name = "is_read")
     private Boolean isRead = false;
 
+    // Number of people an aggregated LIKE stands for; actor_* is the latest
+    @Column(name = "actor_count", nullable = false)
+    private Integer actorCount = 1;
+
+    @Column(name = "last_pushed_at")
+    private LocalDateTime lastPushedAt;
+
+    @Column(name = "push_pending", nullable = false)
+    private boolean pushPending;
+
     // Constructors
     public Notification() {
         this.createdAt = LocalDateTime.now();
@@ -128,4 +138,26 @@ public class Notification {
     public void setIsRead(Boolean isRead) {
         this.isRead = isRead;
     }
-}
\ No newline at end of file
+
+    public Integer getActorCount() {
+        return actorCount;
+    }
+
+    public void setActorCount(Integer actorCount) {
+        this.actorCount = actorCount;
+    }
+
+    // Push bookkeeping for aggregated likes; not part of the JSON
+    public boolean pushDue(LocalDateTime windowStart) {
+        return lastPushedAt == null || lastPushedAt.isBefore(windowStart);
+    }
+
+    public void markPushed(LocalDateTime now) {
+        this.lastPushedAt = now;
+        this.pushPending = false;
+    }
+
+    public void markPushPending() {
+        this.pushPending = true;
+    }
+}
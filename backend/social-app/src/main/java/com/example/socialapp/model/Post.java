@@ -37,6 +37,20 @@ public class Post {
     @Column(name = "updated_at")
     private Instant updatedAt;
 
+    // Maintained only through atomic UPDATEs in PostCounterService, never by entity saves
+    @Column(name = "like_count", nullable = false, insertable = false, updatable = false)
+    private long likeCount;
+
+    @Column(name = "dislike_count", nullable = false, insertable = false, updatable = false)
+    private long dislikeCount;
+
+    @Column(name = "comment_count", nullable = false, insertable = false, updatable = false)
+    private long commentCount;
+
+    // Written periodically by HotRankingService
+    @Column(name = "hot_score", nullable = false, insertable = false, updatable = false)
+    private double hotScore;
+
     public Post() {}
 
     public Post(User user, String content, String imageUrl) {
@@ -93,4 +107,20 @@ public class Post {
     public void setUpdatedAt(Instant updatedAt) {
         this.updatedAt = updatedAt;
     }
-}
\ No newline at end of file
+
+    public long getLikeCount() {
+        return likeCount;
+    }
+
+    public long getDislikeCount() {
+        return dislikeCount;
+    }
+
+    public long getCommentCount() {
+        return commentCount;
+    }
+
+    public double getHotScore() {
+        return hotScore;
+    }
+}
@@ -1,79 +0,0 @@
-
-package com.example.socialapp.model;
-
-import java.time.Instant;
-
-import jakarta.persistence.Column;
-import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
-import jakarta.persistence.Id;
-import jakarta.persistence.JoinColumn;
-import jakarta.persistence.ManyToOne;
-import jakarta.persistence.Table;
-import jakarta.persistence.UniqueConstraint;
-import jakarta.validation.constraints.NotNull;
-
-@Entity
-@Table(name = "post_dislikes", uniqueConstraints = {
-    @UniqueConstraint(name = "unique_post_dislike", columnNames = {"post_id", "user_id"})
-})
-public class PostDislike {
-
-    @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Long id;
-
-    @ManyToOne
-    @JoinColumn(name = "post_id", nullable = false)
-    @NotNull
-    private Post post;
-
-    @ManyToOne
-    @JoinColumn(name = "user_id", nullable = false)
-    @NotNull
-    private User user;
-
-    @Column(name = "created_at", nullable = false, updatable = false)
-    private Instant createdAt = Instant.now();
-
-    public PostDislike() {}
-
-    public PostDislike(Post post, User user) {
-        this.post = post;
-        this.user = user;
-        this.createdAt = Instant.now();
-    }
-
-    public Long getId() {
-        return id;
-    }
-
-    public void setId(Long id) {
-        this.id = id;
-    }
-
-    public Post getPost() {
-        return post;
-    }
-
-    public void setPost(Post post) {
-        this.post = post;
-    }
-
-    public User getUser() {
-        return user;
-    }
-
-    public void setUser(User user) {
-        this.user = user;
-    }
-
-    public Instant getCreatedAt() {
-        return createdAt;
-    }
-
-    public void setCreatedAt(Instant createdAt) {
-        this.createdAt = createdAt;
-    }
-}
@@ -0,0 +1,85 @@
+package com.example.socialapp.model;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+@Entity
+@Table(name = "home_timeline", uniqueConstraints = {
+    @UniqueConstraint(name = "unique_timeline_entry", columnNames = {"user_id", "post_id"})
+})
+public class TimelineEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Owner of the timeline
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "post_id", nullable = false)
+    private Long postId;
+
+    @Column(name = "author_id", nullable = false)
+    private Long authorId;
+
+    // Copy of posts.created_at so a page is a single range scan on the timeline
+    @Column(name = "post_created_at", nullable = false)
+    private Instant postCreatedAt;
+
+    public TimelineEntry() {}
+
+    public TimelineEntry(Long userId, Long postId, Long authorId, Instant postCreatedAt) {
+        this.userId = userId;
+        this.postId = postId;
+        this.authorId = authorId;
+        this.postCreatedAt = postCreatedAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Long getPostId() {
+        return postId;
+    }
+
+    public void setPostId(Long postId) {
+        this.postId = postId;
+    }
+
+    public Long getAuthorId() {
+        return authorId;
+    }
+
+    public void setAuthorId(Long authorId) {
+        this.authorId = authorId;
+    }
+
+    public Instant getPostCreatedAt() {
+        return postCreatedAt;
+    }
+
+    public void setPostCreatedAt(Instant postCreatedAt) {
+        this.postCreatedAt = postCreatedAt;
+    }
+}
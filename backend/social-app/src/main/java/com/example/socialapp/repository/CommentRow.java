@@ -0,0 +1,20 @@
+package com.example.socialapp.repository;
+
+import java.time.Instant;
+
+// One comment with its author's display fields and thread position, read in
+// a single join
+public record CommentRow(
+    Long id,
+    Long postId,
+    Long userId,
+    String username,
+    String userProfilePicture,
+    String commentText,
+    Instant createdAt,
+    Instant updatedAt,
+    Long parentId,
+    int depth,
+    int replyCount,
+    String path
+) {}
@@ -0,0 +1,8 @@
+package com.example.socialapp.repository;
+
+import java.time.Instant;
+
+// Row count, newest id and latest changes of a post's comments and of their
+// authors' profiles; the id catches a delete and an add within one second.
+// Nulls when there are no comments.
+public record CommentsVersion(long count, Long maxId, Instant lastModified, Instant authorsModified) {}
@@ -0,0 +1,4 @@
+package com.example.socialapp.repository;
+
+// A user's follower or following count from one grouped query
+public record FollowCount(Long userId, long count) {}
@@ -0,0 +1,5 @@
+package com.example.socialapp.repository;
+
+// One side of a follow edge with the other user's display fields.
+// followId is the user_follows row id, which pages seek on.
+public record FollowRow(Long followId, Long userId, String username, String profilePictureUrl) {}
@@ -0,0 +1,4 @@
+package com.example.socialapp.repository;
+
+// Sort key of the persisted "hot" order
+public record HotKey(Long id, double hotScore) {}
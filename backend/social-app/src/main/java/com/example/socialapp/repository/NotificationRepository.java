@@ -2,11 +2,17 @@ package com.example.socialapp.repository;
 
 import com.example.socialapp.model.Notification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.LockModeType;
+
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
@@ -22,4 +28,39 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
 
     // Delete all notifications for a user
     void deleteByUserId(Long userId);
-}
\ No newline at end of file
+
+    // Locks the post's like_notification_locks row (created on first use)
+    // for the rest of the transaction, so likes on one post find-or-create
+    // their notification one at a time. ON DUPLICATE KEY UPDATE takes the
+    // existing row's lock exclusively straight away; locking the posts row
+    // instead deadlocked against the shared lock the reaction insert's FK
+    // check already holds there.
+    @Modifying
+    @Query(value = "INSERT INTO like_notification_locks (post_id) VALUES (:postId) " +
+                   "ON DUPLICATE KEY UPDATE post_id = post_id", nativeQuery = true)
+    void lockLikeTarget(@Param("postId") Long postId);
+
+    // The post's LIKE notification still open for aggregation (idx_notifications_user_post_type),
+    // locked so pushPendingLikes cannot overwrite its count meanwhile
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Notification> findFirstByUserIdAndPostIdAndTypeAndCreatedAtAfterOrderByCreatedAtDesc(
+        Long userId, Long postId, String type, LocalDateTime after);
+
+    // 1 if this liker has already been announced for the post, else 0
+    @Query(value = "SELECT COUNT(*) FROM like_notification_actors WHERE post_id = :postId AND actor_id = :actorId",
+           nativeQuery = true)
+    long countLikeActor(@Param("postId") Long postId, @Param("actorId") Long actorId);
+
+    // Returns 1 if the liker was newly recorded against the notification
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO like_notification_actors (post_id, actor_id, notification_id) " +
+                   "VALUES (:postId, :actorId, :notificationId)", nativeQuery = true)
+    int claimLikeActor(@Param("postId") Long postId, @Param("actorId") Long actorId,
+                       @Param("notificationId") Long notificationId);
+
+    // Aggregated likes whose push was held back and whose window has passed,
+    // locked against a concurrent like updating the same rows
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT n FROM Notification n WHERE n.pushPending = true AND n.lastPushedAt < :windowStart")
+    List<Notification> findDuePushes(@Param("windowStart") LocalDateTime windowStart);
+}
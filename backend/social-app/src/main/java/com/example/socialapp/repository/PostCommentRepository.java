@@ -1,9 +1,14 @@
-
 package com.example.socialapp.repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.socialapp.model.PostComment;
@@ -11,7 +16,45 @@ import com.example.socialapp.model.PostComment;
 @Repository
 public interface PostCommentRepository extends JpaRepository<PostComment, Long> {
     
-    List<PostComment> findByPostIdOrderByCreatedAtDesc(Long postId);
-    
     long countByPostId(Long postId);
+
+    @Query("SELECT new com.example.socialapp.repository.CommentsVersion(COUNT(c), MAX(c.id), " +
+           "MAX(COALESCE(c.updatedAt, c.createdAt)), MAX(COALESCE(u.updatedAt, u.createdAt))) " +
+           "FROM PostComment c JOIN c.user u WHERE c.post.id = :postId")
+    CommentsVersion findVersionByPostId(@Param("postId") Long postId);
+
+    // ==== Top-level comments, newest first (seek on idx_post_comments_top_level) ====
+    // Authors are joined once; the post itself is never loaded
+
+    @Query("SELECT new com.example.socialapp.repository.CommentRow(c.id, c.post.id, u.id, u.username, " +
+           "u.profilePictureUrl, c.commentText, c.createdAt, c.updatedAt, c.parentId, c.depth, c.replyCount, c.path) " +
+           "FROM PostComment c JOIN c.user u WHERE c.post.id = :postId AND c.depth = 0 " +
+           "ORDER BY c.createdAt DESC, c.id DESC")
+    List<CommentRow> findTopLevelPage(@Param("postId") Long postId, Limit limit);
+
+    @Query("SELECT new com.example.socialapp.repository.CommentRow(c.id, c.post.id, u.id, u.username, " +
+           "u.profilePictureUrl, c.commentText, c.createdAt, c.updatedAt, c.parentId, c.depth, c.replyCount, c.path) " +
+           "FROM PostComment c JOIN c.user u WHERE c.post.id = :postId AND c.depth = 0 " +
+           "AND (c.createdAt < :createdAt OR (c.createdAt = :createdAt AND c.id < :id)) " +
+           "ORDER BY c.createdAt DESC, c.id DESC")
+    List<CommentRow> findTopLevelPageAfter(@Param("postId") Long postId, @Param("createdAt") Instant createdAt,
+                                           @Param("id") Long id, Limit limit);
+
+    // ==== Subtree pages in path order (range scan on idx_post_comments_thread) ====
+
+    @Query("SELECT new com.example.socialapp.repository.CommentRow(c.id, c.post.id, u.id, u.username, " +
+           "u.profilePictureUrl, c.commentText, c.createdAt, c.updatedAt, c.parentId, c.depth, c.replyCount, c.path) " +
+           "FROM PostComment c JOIN c.user u WHERE c.rootId = :rootId " +
+           "AND c.path LIKE :pathPrefix AND c.path > :afterPath ORDER BY c.path")
+    List<CommentRow> findSubtreePage(@Param("rootId") Long rootId, @Param("pathPrefix") String pathPrefix,
+                                     @Param("afterPath") String afterPath, Limit limit);
+
+    // A user's comments on posts by other users
+    @Query("SELECT c FROM PostComment c WHERE c.user.id = :userId AND c.post.user.id <> :userId")
+    List<PostComment> findOnOthersPosts(@Param("userId") Long userId);
+
+    // Adds to the reply counts of a comment's ancestors
+    @Modifying
+    @Query("UPDATE PostComment c SET c.replyCount = c.replyCount + :delta WHERE c.id IN :ids")
+    int addToReplyCounts(@Param("ids") Collection<Long> ids, @Param("delta") int delta);
 }
@@ -0,0 +1,7 @@
+package com.example.socialapp.repository;
+
+// Denormalized engagement counters of one post
+public record PostCounters(long likeCount, long dislikeCount, long commentCount) {
+
+    public static final PostCounters ZERO = new PostCounters(0, 0, 0);
+}
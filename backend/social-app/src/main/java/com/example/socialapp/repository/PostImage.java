@@ -0,0 +1,4 @@
+package com.example.socialapp.repository;
+
+// A post's image, for thumbnails next to notifications
+public record PostImage(Long id, String imageUrl) {}
@@ -0,0 +1,6 @@
+package com.example.socialapp.repository;
+
+import java.time.Instant;
+
+// Sort key of a post in the newest-first feeds
+public record PostKey(Long id, Instant createdAt) {}
@@ -0,0 +1,59 @@
+package com.example.socialapp.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.socialapp.model.PostReaction;
+
+// Every write is a single statement by ids that reports whether it changed
+// the row, so callers derive counter deltas from affected-row counts
+@Repository
+public interface PostReactionRepository extends JpaRepository<PostReaction, PostReaction.Key> {
+
+    boolean existsByPostIdAndUserIdAndKind(Long postId, Long userId, PostReaction.Kind kind);
+
+    // Returns 1 if a reaction was added, 0 if the user already had one
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO post_reactions (post_id, user_id, kind) VALUES (:postId, :userId, :kind)",
+           nativeQuery = true)
+    int insertIgnore(@Param("postId") Long postId, @Param("userId") Long userId, @Param("kind") String kind);
+
+    // Flips an existing reaction; returns 1 if it was of the 'from' kind
+    @Modifying
+    @Query("UPDATE PostReaction r SET r.kind = :to, r.createdAt = :now " +
+           "WHERE r.postId = :postId AND r.userId = :userId AND r.kind = :from")
+    int updateKind(@Param("postId") Long postId, @Param("userId") Long userId,
+                   @Param("from") PostReaction.Kind from, @Param("to") PostReaction.Kind to,
+                   @Param("now") Instant now);
+
+    // Returns 1 if a reaction of that kind was removed
+    @Modifying
+    @Query("DELETE FROM PostReaction r WHERE r.postId = :postId AND r.userId = :userId AND r.kind = :kind")
+    int deleteKind(@Param("postId") Long postId, @Param("userId") Long userId,
+                   @Param("kind") PostReaction.Kind kind);
+
+    // The viewer's reactions to a page of posts, in one query (idx_post_reactions_user_post)
+    @Query("SELECT new com.example.socialapp.repository.ViewerReaction(r.postId, r.kind) FROM PostReaction r " +
+           "WHERE r.userId = :userId AND r.postId IN :postIds")
+    List<ViewerReaction> findViewerReactions(@Param("userId") Long userId,
+                                             @Param("postIds") Collection<Long> postIds);
+
+    // A user's reactions to posts by other users
+    @Query("SELECT new com.example.socialapp.repository.ViewerReaction(r.postId, r.kind) FROM PostReaction r, Post p " +
+           "WHERE p.id = r.postId AND r.userId = :userId AND p.user.id <> :userId")
+    List<ViewerReaction> findOnOthersPosts(@Param("userId") Long userId);
+
+    // Reactors of one kind whom the user follows, ids ascending
+    @Query("SELECT r.userId FROM PostReaction r WHERE r.postId = :postId AND r.kind = :kind " +
+           "AND r.userId IN (SELECT uf.followedId FROM UserFollow uf WHERE uf.followerId = :userId) " +
+           "ORDER BY r.userId")
+    List<Long> findReactorsFollowedBy(@Param("postId") Long postId, @Param("kind") PostReaction.Kind kind,
+                                      @Param("userId") Long userId);
+}
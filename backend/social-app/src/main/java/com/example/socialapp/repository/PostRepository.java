@@ -1,8 +1,16 @@
 package com.example.socialapp.repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.socialapp.model.Post;
@@ -10,7 +18,77 @@ import com.example.socialapp.model.Post;
 @Repository
 public interface PostRepository extends JpaRepository<Post, Long> {
     
-    List<Post> findByUserIdOrderByCreatedAtDesc(Long userId);
-    
-    List<Post> findAllByOrderByCreatedAtDesc();
-}
\ No newline at end of file
+    // Posts with their authors for a page of ids, in one select (order is not preserved)
+    @EntityGraph(attributePaths = "user")
+    @Query("SELECT p FROM Post p WHERE p.id IN :ids")
+    List<Post> findWithUserByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT p.user.id FROM Post p WHERE p.id = :postId")
+    Optional<Long> findAuthorId(@Param("postId") Long postId);
+
+    // ==== Keyset pages, newest first (seek on idx_posts_created_at) ====
+    // Only (id, created_at) is read; post bodies come from PostViewCache
+
+    @Query("SELECT new com.example.socialapp.repository.PostKey(p.id, p.createdAt) FROM Post p " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<PostKey> findFeedKeys(Limit limit);
+
+    @Query("SELECT new com.example.socialapp.repository.PostKey(p.id, p.createdAt) FROM Post p " +
+           "WHERE p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<PostKey> findFeedKeysAfter(@Param("createdAt") Instant createdAt, @Param("id") Long id, Limit limit);
+
+    // ==== Keyset pages for one author (seek on idx_posts_user_created_at) ====
+
+    @Query("SELECT new com.example.socialapp.repository.PostKey(p.id, p.createdAt) FROM Post p " +
+           "WHERE p.user.id = :userId ORDER BY p.createdAt DESC, p.id DESC")
+    List<PostKey> findUserKeys(@Param("userId") Long userId, Limit limit);
+
+    @Query("SELECT new com.example.socialapp.repository.PostKey(p.id, p.createdAt) FROM Post p " +
+           "WHERE p.user.id = :userId " +
+           "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<PostKey> findUserKeysAfter(@Param("userId") Long userId, @Param("createdAt") Instant createdAt,
+                                    @Param("id") Long id, Limit limit);
+
+    // Every post of one author (idx_posts_user_created_at)
+    @Query("SELECT p.id FROM Post p WHERE p.user.id = :userId")
+    List<Long> findIdsByUserId(@Param("userId") Long userId);
+
+    // ==== Persisted "hot" order for posts older than the in-memory window (idx_posts_hot_score) ====
+
+    @Query("SELECT new com.example.socialapp.repository.HotKey(p.id, p.hotScore) FROM Post p " +
+           "WHERE p.createdAt < :before ORDER BY p.hotScore DESC, p.id DESC")
+    List<HotKey> findHotKeys(@Param("before") Instant before, Limit limit);
+
+    @Query("SELECT new com.example.socialapp.repository.HotKey(p.id, p.hotScore) FROM Post p " +
+           "WHERE p.createdAt < :before " +
+           "AND (p.hotScore < :score OR (p.hotScore = :score AND p.id < :id)) " +
+           "ORDER BY p.hotScore DESC, p.id DESC")
+    List<HotKey> findHotKeysAfter(@Param("before") Instant before, @Param("score") double score,
+                                  @Param("id") Long id, Limit limit);
+
+    // Change stamps of a page of posts, for the feed ETag (order is not preserved)
+    @Query("SELECT new com.example.socialapp.repository.PostVersion(p.id, COALESCE(p.updatedAt, p.createdAt), " +
+           "COALESCE(u.updatedAt, u.createdAt), p.likeCount, p.dislikeCount, p.commentCount) " +
+           "FROM Post p JOIN p.user u WHERE p.id IN :ids")
+    List<PostVersion> findVersionsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Image URLs of many posts at once (order is not preserved)
+    @Query("SELECT new com.example.socialapp.repository.PostImage(p.id, p.imageUrl) FROM Post p WHERE p.id IN :ids")
+    List<PostImage> findImagesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // ==== Engagement counters ====
+
+    @Query("SELECT new com.example.socialapp.repository.PostCounters(p.likeCount, p.dislikeCount, p.commentCount) " +
+           "FROM Post p WHERE p.id = :postId")
+    Optional<PostCounters> findCountersById(@Param("postId") Long postId);
+
+    // Atomic in-place increment; concurrent toggles never lose an update
+    @Modifying
+    @Query("UPDATE Post p SET p.likeCount = p.likeCount + :likeDelta, " +
+           "p.dislikeCount = p.dislikeCount + :dislikeDelta, " +
+           "p.commentCount = p.commentCount + :commentDelta WHERE p.id = :postId")
+    int adjustCounters(@Param("postId") Long postId, @Param("likeDelta") long likeDelta,
+                       @Param("dislikeDelta") long dislikeDelta, @Param("commentDelta") long commentDelta);
+}
@@ -0,0 +1,8 @@
+package com.example.socialapp.repository;
+
+import java.time.Instant;
+
+// What a feed entry's rendering depends on, read without hydrating the post;
+// authorModified covers the author's name and avatar
+public record PostVersion(Long id, Instant lastModified, Instant authorModified,
+                          long likeCount, long dislikeCount, long commentCount) {}
@@ -0,0 +1,27 @@
+package com.example.socialapp.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.socialapp.model.TimelineEntry;
+
+@Repository
+public interface TimelineEntryRepository extends JpaRepository<TimelineEntry, Long> {
+
+    // Newest entries of one timeline (range scan on idx_home_timeline_user_created_at)
+    @Query("SELECT t FROM TimelineEntry t WHERE t.userId = :userId " +
+           "ORDER BY t.postCreatedAt DESC, t.postId DESC")
+    List<TimelineEntry> findPage(@Param("userId") Long userId, Limit limit);
+
+    @Query("SELECT t FROM TimelineEntry t WHERE t.userId = :userId " +
+           "AND (t.postCreatedAt < :createdAt OR (t.postCreatedAt = :createdAt AND t.postId < :postId)) " +
+           "ORDER BY t.postCreatedAt DESC, t.postId DESC")
+    List<TimelineEntry> findPageAfter(@Param("userId") Long userId, @Param("createdAt") Instant createdAt,
+                                      @Param("postId") Long postId, Limit limit);
+}
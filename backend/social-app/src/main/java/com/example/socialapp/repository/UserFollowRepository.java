@@ -1,9 +1,13 @@
 package com.example.socialapp.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.socialapp.model.UserFollow;
@@ -28,4 +32,50 @@ public interface UserFollowRepository extends JpaRepository<UserFollow, Long> {
     
     // Get all followers of a user (NEW)
     List<UserFollow> findByFollowedId(Long followedId);
-}
\ No newline at end of file
+
+    // Ids only, for fan-out over large follower lists
+    @Query("SELECT uf.followerId FROM UserFollow uf WHERE uf.followedId = :followedId")
+    List<Long> findFollowerIds(@Param("followedId") Long followedId);
+
+    // Ids of the accounts a user follows
+    @Query("SELECT uf.followedId FROM UserFollow uf WHERE uf.followerId = :followerId")
+    List<Long> findFollowedIdsOf(@Param("followerId") Long followerId);
+
+    // Accounts with more than the given number of followers
+    @Query("SELECT uf.followedId FROM UserFollow uf GROUP BY uf.followedId HAVING COUNT(uf) > :threshold")
+    List<Long> findFollowedIdsWithMoreFollowersThan(@Param("threshold") long threshold);
+
+    // Which of the given accounts the user follows
+    @Query("SELECT uf.followedId FROM UserFollow uf WHERE uf.followerId = :followerId AND uf.followedId IN :followedIds")
+    List<Long> findFollowedIdsIn(@Param("followerId") Long followerId,
+                                 @Param("followedIds") Collection<Long> followedIds);
+
+    // Which of the given accounts follow the user
+    @Query("SELECT uf.followerId FROM UserFollow uf WHERE uf.followedId = :followedId AND uf.followerId IN :followerIds")
+    List<Long> findFollowerIdsIn(@Param("followedId") Long followedId,
+                                 @Param("followerIds") Collection<Long> followerIds);
+
+    // Follower counts of many users at once; users with none are absent
+    @Query("SELECT new com.example.socialapp.repository.FollowCount(uf.followedId, COUNT(uf)) " +
+           "FROM UserFollow uf WHERE uf.followedId IN :userIds GROUP BY uf.followedId")
+    List<FollowCount> countFollowersIn(@Param("userIds") Collection<Long> userIds);
+
+    // Following counts of many users at once; users with none are absent
+    @Query("SELECT new com.example.socialapp.repository.FollowCount(uf.followerId, COUNT(uf)) " +
+           "FROM UserFollow uf WHERE uf.followerId IN :userIds GROUP BY uf.followerId")
+    List<FollowCount> countFollowingIn(@Param("userIds") Collection<Long> userIds);
+
+    // ==== Keyset pages, most recent follow first ====
+    // InnoDB secondary indexes end in the primary key, so idx_followed and
+    // idx_follower already order each user's rows by id
+
+    @Query("SELECT new com.example.socialapp.repository.FollowRow(uf.id, u.id, u.username, u.profilePictureUrl) " +
+           "FROM UserFollow uf JOIN User u ON u.id = uf.followerId " +
+           "WHERE uf.followedId = :userId AND uf.id < :beforeId ORDER BY uf.id DESC")
+    List<FollowRow> findFollowersPage(@Param("userId") Long userId, @Param("beforeId") Long beforeId, Limit limit);
+
+    @Query("SELECT new com.example.socialapp.repository.FollowRow(uf.id, u.id, u.username, u.profilePictureUrl) " +
+           "FROM UserFollow uf JOIN User u ON u.id = uf.followedId " +
+           "WHERE uf.followerId = :userId AND uf.id < :beforeId ORDER BY uf.id DESC")
+    List<FollowRow> findFollowingPage(@Param("userId") Long userId, @Param("beforeId") Long beforeId, Limit limit);
+}
@@ -1,5 +1,6 @@
 package com.example.socialapp.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,4 +24,9 @@ public interface UserRepository extends JpaRepository<User, Long> {
   // This query will be filtered further in the controller based on role
   @Query("SELECT u FROM User u WHERE LOWER(u.username) LIKE LOWER(CONCAT('%', :searchTerm, '%')) AND u.active = true")
   List<User> searchByUsername(@Param("searchTerm") String searchTerm);
+
+  // Display fields only, for lists of people
+  @Query("SELECT new com.example.socialapp.repository.UserSummary(u.id, u.username, u.profilePictureUrl) " +
+         "FROM User u WHERE u.id IN :ids")
+  List<UserSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
 }
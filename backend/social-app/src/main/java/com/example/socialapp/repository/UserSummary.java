@@ -0,0 +1,4 @@
+package com.example.socialapp.repository;
+
+// What lists of people show: no email, no password hash
+public record UserSummary(Long id, String username, String profilePictureUrl) {}
@@ -0,0 +1,6 @@
+package com.example.socialapp.repository;
+
+import com.example.socialapp.model.PostReaction;
+
+// The viewer's reaction to one post of a page
+public record ViewerReaction(Long postId, PostReaction.Kind kind) {}
@@ -0,0 +1,343 @@
+package com.example.socialapp.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.socialapp.repository.PostCounters;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+// Write-behind buffer for the post counter columns. A burst of likes on one
+// post only touches striped LongAdder cells in memory; a scheduler flushes
+// the accumulated deltas to the database in one batched UPDATE every
+// counters.flush-interval-ms, so the counter row is locked once per flush
+// instead of once per toggle.
+//
+// Deltas enter the buffer only once the caller's transaction commits. Reads
+// of persisted counters go through read(): the flush moves deltas from the
+// live adders to the in-flight fields, and later commits its UPDATE and
+// clears them, each step under the write side of one lock. A reader holding
+// the read side therefore sees every delta exactly once, either in the
+// database or in the buffer.
+@Component
+public class EngagementCounterBuffer {
+
+    // Cells with nothing to flush for this many rounds are dropped from the map
+    private static final int EVICT_AFTER_IDLE_FLUSHES = 20;
+
+    private static final String FLUSH_SQL =
+        "UPDATE posts SET like_count = like_count + ?, dislike_count = dislike_count + ?, " +
+        "comment_count = comment_count + ? WHERE id = ?";
+
+    private static final class Cell {
+        final LongAdder likes = new LongAdder();
+        final LongAdder dislikes = new LongAdder();
+        final LongAdder comments = new LongAdder();
+
+        // Deltas taken by the running flush but not yet committed, so reads
+        // do not dip while the UPDATE is in flight. Written by the flusher
+        // only, under the write lock.
+        volatile long flushingLikes;
+        volatile long flushingDislikes;
+        volatile long flushingComments;
+
+        // Writers currently adding to this cell; eviction waits for them
+        final LongAdder pins = new LongAdder();
+        volatile boolean retired;
+        int idleFlushes;
+
+        long likes() {
+            return likes.sum() + flushingLikes;
+        }
+
+        long dislikes() {
+            return dislikes.sum() + flushingDislikes;
+        }
+
+        long comments() {
+            return comments.sum() + flushingComments;
+        }
+    }
+
+    // Deltas of the current transaction, buffered once it commits
+    private static final class TransactionDeltas {
+        final Map<Long, long[]> byPost = new HashMap<>();
+    }
+
+    private final ConcurrentHashMap<Long, Cell> cells = new ConcurrentHashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final PostChangeLog postChangeLog;
+    private final boolean enabled;
+
+    public EngagementCounterBuffer(JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   PostChangeLog postChangeLog,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${counters.write-behind.enabled:true}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionManager = transactionManager;
+        this.postChangeLog = postChangeLog;
+        this.enabled = enabled;
+
+        Gauge.builder("counters.pending.posts", cells::size)
+                .description("Posts with counter deltas not yet flushed to the database")
+                .register(meterRegistry);
+        Gauge.builder("counters.pending.deltas", this::pendingDeltas)
+                .description("Sum of absolute counter deltas not yet flushed to the database")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Buffer the deltas once the surrounding transaction commits, so a
+    // rolled-back toggle or comment leaves the counters alone. Until then
+    // only withOwnDeltas in the same transaction sees them.
+    public void add(Long postId, long likeDelta, long dislikeDelta, long commentDelta) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(postId, likeDelta, dislikeDelta, commentDelta);
+            return;
+        }
+        TransactionDeltas deltas = (TransactionDeltas) TransactionSynchronizationManager.getResource(this);
+        if (deltas == null) {
+            TransactionDeltas bound = new TransactionDeltas();
+            TransactionSynchronizationManager.bindResource(this, bound);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(EngagementCounterBuffer.this);
+                    bound.byPost.forEach((id, delta) -> apply(id, delta[0], delta[1], delta[2]));
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(EngagementCounterBuffer.this);
+                }
+            });
+            deltas = bound;
+        }
+        long[] delta = deltas.byPost.computeIfAbsent(postId, id -> new long[3]);
+        delta[0] += likeDelta;
+        delta[1] += dislikeDelta;
+        delta[2] += commentDelta;
+    }
+
+    private void apply(Long postId, long likeDelta, long dislikeDelta, long commentDelta) {
+        while (true) {
+            Cell cell = cells.computeIfAbsent(postId, id -> new Cell());
+            cell.pins.increment();
+            try {
+                if (cell.retired) {
+                    // Being evicted right now; retry on a fresh cell
+                    continue;
+                }
+                if (likeDelta != 0) {
+                    cell.likes.add(likeDelta);
+                }
+                if (dislikeDelta != 0) {
+                    cell.dislikes.add(dislikeDelta);
+                }
+                if (commentDelta != 0) {
+                    cell.comments.add(commentDelta);
+                }
+                return;
+            } finally {
+                cell.pins.decrement();
+            }
+        }
+    }
+
+    // Run a read of persisted counters, with its withPending calls, so that
+    // no flush step lands in between. A transaction whose snapshot predates a
+    // flush can still miss that flush's deltas; reads are best kept to the
+    // start of a transaction.
+    public <T> T read(Supplier<T> reader) {
+        if (!enabled) {
+            return reader.get();
+        }
+        lock.readLock().lock();
+        try {
+            return reader.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Persisted counters plus whatever is still waiting to be flushed.
+    // Call inside read().
+    public PostCounters withPending(Long postId, PostCounters persisted) {
+        Cell cell = cells.get(postId);
+        if (cell == null) {
+            return persisted;
+        }
+        return new PostCounters(
+            persisted.likeCount() + cell.likes(),
+            persisted.dislikeCount() + cell.dislikes(),
+            persisted.commentCount() + cell.comments()
+        );
+    }
+
+    // Adds the current transaction's own deltas, not yet in the buffer. For
+    // answering the writer only; nothing shared should cache the result.
+    public PostCounters withOwnDeltas(Long postId, PostCounters counters) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return counters;
+        }
+        TransactionDeltas own = (TransactionDeltas) TransactionSynchronizationManager.getResource(this);
+        long[] delta = own == null ? null : own.byPost.get(postId);
+        if (delta == null) {
+            return counters;
+        }
+        return new PostCounters(
+            counters.likeCount() + delta[0],
+            counters.dislikeCount() + delta[1],
+            counters.commentCount() + delta[2]
+        );
+    }
+
+    @Scheduled(fixedDelayString = "${counters.flush-interval-ms:250}")
+    public synchronized void flush() {
+        List<Object[]> batch = new ArrayList<>();
+        List<Cell> flushing = new ArrayList<>();
+
+        // Step 1: take the deltas out of the live adders into the in-flight
+        // fields; readers see the move as a whole
+        lock.writeLock().lock();
+        try {
+            for (Map.Entry<Long, Cell> entry : cells.entrySet()) {
+                Cell cell = entry.getValue();
+                long likes = cell.likes.sum();
+                long dislikes = cell.dislikes.sum();
+                long comments = cell.comments.sum();
+
+                if (likes == 0 && dislikes == 0 && comments == 0) {
+                    if (++cell.idleFlushes >= EVICT_AFTER_IDLE_FLUSHES) {
+                        evict(entry.getKey(), cell);
+                    }
+                    continue;
+                }
+
+                // Concurrent adds after the sum stay in the adders
+                cell.idleFlushes = 0;
+                cell.likes.add(-likes);
+                cell.dislikes.add(-dislikes);
+                cell.comments.add(-comments);
+                cell.flushingLikes = likes;
+                cell.flushingDislikes = dislikes;
+                cell.flushingComments = comments;
+                flushing.add(cell);
+                batch.add(new Object[] { likes, dislikes, comments, entry.getKey() });
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        // Step 2: run the UPDATEs in a transaction of their own, outside the
+        // lock, so readers are not held up by row locks
+        DefaultTransactionDefinition definition = new DefaultTransactionDefinition();
+        definition.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        TransactionStatus transaction = transactionManager.getTransaction(definition);
+        boolean committed = false;
+        try {
+            jdbcTemplate.batchUpdate(FLUSH_SQL, batch);
+        } catch (Exception e) {
+            System.err.println("[EngagementCounterBuffer] Flush of " + batch.size() + " posts failed: " + e.getMessage());
+            transactionManager.rollback(transaction);
+            transaction = null;
+        }
+
+        // Step 3: commit and clear the in-flight fields in one step for
+        // readers; on failure the deltas go back to the adders for a retry
+        lock.writeLock().lock();
+        try {
+            if (transaction != null) {
+                try {
+                    transactionManager.commit(transaction);
+                    committed = true;
+                } catch (Exception e) {
+                    System.err.println("[EngagementCounterBuffer] Commit of " + batch.size() + " posts failed: " + e.getMessage());
+                }
+            }
+            for (Cell cell : flushing) {
+                if (!committed) {
+                    cell.likes.add(cell.flushingLikes);
+                    cell.dislikes.add(cell.flushingDislikes);
+                    cell.comments.add(cell.flushingComments);
+                }
+                cell.flushingLikes = 0;
+                cell.flushingDislikes = 0;
+                cell.flushingComments = 0;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (!committed) {
+            return;
+        }
+
+        // One change log row per flushed post, however many toggles it absorbed
+        List<Long> flushed = new ArrayList<>(batch.size());
+        for (Object[] row : batch) {
+            flushed.add((Long) row[3]);
+        }
+        postChangeLog.appendAll(flushed, PostChangeLog.ChangeType.COUNTERS);
+    }
+
+    // Remove an idle cell. Writers that picked it up before removal are waited
+    // out, and anything they added moves to a fresh cell for the next round.
+    // Runs under the write lock, so readers never see the deltas missing.
+    private void evict(Long postId, Cell cell) {
+        cell.retired = true;
+        cells.remove(postId, cell);
+        while (cell.pins.sum() != 0) {
+            Thread.onSpinWait();
+        }
+        long likes = cell.likes.sum();
+        long dislikes = cell.dislikes.sum();
+        long comments = cell.comments.sum();
+        if (likes != 0 || dislikes != 0 || comments != 0) {
+            apply(postId, likes, dislikes, comments);
+        }
+    }
+
+    private long pendingDeltas() {
+        long total = 0;
+        for (Cell cell : cells.values()) {
+            total += Math.abs(cell.likes()) + Math.abs(cell.dislikes()) + Math.abs(cell.comments());
+        }
+        return total;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+        System.out.println("[EngagementCounterBuffer] Flushed pending counter deltas on shutdown");
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.socialapp.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+// Opaque keyset cursor: the (created_at, id) of the last row a client received.
+// The next page starts strictly after it in (created_at DESC, id DESC) order.
+public record FeedCursor(Instant createdAt, Long id) {
+
+    public static FeedCursor of(Instant createdAt, Long id) {
+        return new FeedCursor(createdAt, id);
+    }
+
+    public String encode() {
+        String raw = createdAt.getEpochSecond() + "." + createdAt.getNano() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static FeedCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int colon = raw.indexOf(':');
+            int dot = raw.indexOf('.');
+            long seconds = Long.parseLong(raw.substring(0, dot));
+            long nanos = Long.parseLong(raw.substring(dot + 1, colon));
+            long id = Long.parseLong(raw.substring(colon + 1));
+            return new FeedCursor(Instant.ofEpochSecond(seconds, nanos), id);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.socialapp.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.socialapp.repository.PostCounters;
+import com.example.socialapp.repository.PostRepository;
+import com.example.socialapp.repository.PostVersion;
+import com.example.socialapp.service.PostViewCache.PostView;
+
+// Hydrates a whole page of posts at once, so rendering a feed costs a fixed
+// number of queries instead of five per post. The viewer-independent part
+// comes from PostViewCache (one query for all misses); the viewer's
+// like/dislike flags are overlaid from ReactorBitmaps for posts with many
+// reactions and from ViewerReactionCache for the rest.
+@Service
+public class FeedHydrationService {
+
+    private final ViewerReactionCache viewerReactionCache;
+    private final ReactorBitmaps reactorBitmaps;
+    private final PostViewCache postViewCache;
+    private final PostRepository postRepository;
+    private final EngagementCounterBuffer counterBuffer;
+    private final FeedStreamReader feedStreamReader;
+
+    public FeedHydrationService(ViewerReactionCache viewerReactionCache,
+                                ReactorBitmaps reactorBitmaps,
+                                PostViewCache postViewCache,
+                                PostRepository postRepository,
+                                EngagementCounterBuffer counterBuffer,
+                                FeedStreamReader feedStreamReader) {
+        this.viewerReactionCache = viewerReactionCache;
+        this.reactorBitmaps = reactorBitmaps;
+        this.postViewCache = postViewCache;
+        this.postRepository = postRepository;
+        this.counterBuffer = counterBuffer;
+        this.feedStreamReader = feedStreamReader;
+    }
+
+    public record HydratedPost(
+        PostView post,
+        boolean userLiked,
+        boolean userDisliked
+    ) {}
+
+    // Change stamps of a page in postIds order, with unflushed counter deltas
+    // applied. One narrow query, cheap enough to run before hydrate() so an
+    // unchanged page can be answered with 304.
+    @Transactional(readOnly = true)
+    public List<PostVersion> versions(List<Long> postIds) {
+        List<PostVersion> versions = new ArrayList<>(postIds.size());
+        if (postIds.isEmpty()) {
+            return versions;
+        }
+
+        return counterBuffer.read(() -> {
+            Map<Long, PostVersion> byId = new HashMap<>();
+            for (PostVersion version : postRepository.findVersionsByIdIn(postIds)) {
+                byId.put(version.id(), version);
+            }
+            for (Long postId : postIds) {
+                PostVersion version = byId.get(postId);
+                if (version == null) {
+                    continue;
+                }
+                PostCounters counters = counterBuffer.withPending(postId,
+                    new PostCounters(version.likeCount(), version.dislikeCount(), version.commentCount()));
+                versions.add(new PostVersion(postId, version.lastModified(), version.authorModified(),
+                    counters.likeCount(), counters.dislikeCount(), counters.commentCount()));
+            }
+            return versions;
+        });
+    }
+
+    // Keeps the order of postIds; posts deleted in the meantime are skipped
+    @Transactional(readOnly = true)
+    public List<HydratedPost> hydrate(List<Long> postIds, Long viewerId) {
+        List<HydratedPost> hydrated = new ArrayList<>(postIds.size());
+        if (postIds.isEmpty()) {
+            return hydrated;
+        }
+
+        Map<Long, PostView> views = postViewCache.getAll(postIds);
+        for (PostView view : views.values()) {
+            reactorBitmaps.touch(view.id(), view.likeCount() + view.dislikeCount());
+        }
+
+        Set<Long> liked = new HashSet<>();
+        Set<Long> disliked = new HashSet<>();
+        loadViewerReactions(viewerId, postIds, liked, disliked);
+
+        for (Long postId : postIds) {
+            PostView view = views.get(postId);
+            if (view != null) {
+                hydrated.add(new HydratedPost(view, liked.contains(postId), disliked.contains(postId)));
+            }
+        }
+        return hydrated;
+    }
+
+    // Streams the whole feed (or one author's posts, when authorId is set)
+    // newest first, handing hydrated chunks to the sink as rows are read from
+    // FeedStreamReader's cursor. Holds no transaction or application-pool
+    // connection meanwhile; the per-chunk reaction lookups take their own.
+    // Bypasses PostViewCache on purpose: a full scan would only evict the hot
+    // entries. Counters can be off by a flush in progress. Returns where to
+    // resume when the stream hit its time limit, else null.
+    public FeedCursor stream(Long authorId, FeedCursor after, Long viewerId, int chunkSize,
+                             Consumer<List<HydratedPost>> sink) {
+        return feedStreamReader.read(authorId, after, chunkSize, views -> sink.accept(hydrateLoaded(views, viewerId)));
+    }
+
+    // Both flags of the whole page: posts with reactor bitmaps first, the
+    // rest from the viewer's cached reaction sets
+    private void loadViewerReactions(Long viewerId, List<Long> postIds, Set<Long> liked, Set<Long> disliked) {
+        if (viewerId == null) {
+            return;
+        }
+        List<Long> rest = reactorBitmaps.lookup(viewerId, postIds, liked, disliked);
+        if (!rest.isEmpty()) {
+            viewerReactionCache.lookup(viewerId, rest, liked, disliked);
+        }
+    }
+
+    private List<HydratedPost> hydrateLoaded(List<PostView> views, Long viewerId) {
+        List<Long> postIds = new ArrayList<>(views.size());
+        for (PostView view : views) {
+            postIds.add(view.id());
+        }
+
+        Set<Long> liked = new HashSet<>();
+        Set<Long> disliked = new HashSet<>();
+        loadViewerReactions(viewerId, postIds, liked, disliked);
+
+        List<HydratedPost> hydrated = new ArrayList<>(views.size());
+        for (PostView view : views) {
+            PostCounters counters = counterBuffer.withPending(view.id(),
+                new PostCounters(view.likeCount(), view.dislikeCount(), view.commentCount()));
+            PostView current = new PostView(view.id(), view.userId(), view.username(), view.userProfilePicture(),
+                view.content(), view.imageUrl(), view.createdAt(), view.updatedAt(),
+                counters.likeCount(), counters.dislikeCount(), counters.commentCount());
+            hydrated.add(new HydratedPost(current, liked.contains(view.id()), disliked.contains(view.id())));
+        }
+        return hydrated;
+    }
+}
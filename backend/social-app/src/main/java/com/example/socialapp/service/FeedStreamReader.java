@@ -0,0 +1,137 @@
+package com.example.socialapp.service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.example.socialapp.service.PostViewCache.PostView;
+import com.zaxxer.hikari.HikariDataSource;
+
+import jakarta.annotation.PreDestroy;
+
+// Reads the NDJSON feeds through a server-side cursor on a pool of its own.
+// Only this pool's URL carries useCursorFetch=true, so every other query
+// keeps client-side prepared statements, and a slow client holds one of
+// these connections rather than one from the application pool. At most
+// feed.stream.max-concurrent streams run at once (tryAcquire), and each is
+// cut off after feed.stream.max-seconds, reporting where to resume.
+@Component
+public class FeedStreamReader {
+
+    private static final String COLUMNS =
+        "SELECT p.id, p.user_id, u.username, u.profile_picture_url, p.content, p.image_url, " +
+        "p.created_at, p.updated_at, p.like_count, p.dislike_count, p.comment_count " +
+        "FROM posts p JOIN users u ON u.id = p.user_id ";
+    private static final String AFTER = "(p.created_at < ? OR (p.created_at = ? AND p.id < ?))";
+    private static final String ORDER = " ORDER BY p.created_at DESC, p.id DESC";
+
+    private final HikariDataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final Semaphore permits;
+    private final Duration maxDuration;
+
+    public FeedStreamReader(DataSourceProperties properties,
+                            @Value("${feed.stream.max-concurrent:4}") int maxConcurrent,
+                            @Value("${feed.stream.max-seconds:120}") long maxSeconds,
+                            @Value("${feed.stream.fetch-size:100}") int fetchSize) {
+        String url = properties.determineUrl();
+        if (url != null && url.startsWith("jdbc:mysql:")) {
+            url += (url.contains("?") ? "&" : "?") + "useCursorFetch=true";
+        }
+        this.dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(url)
+                .build();
+        dataSource.setPoolName("feed-stream");
+        dataSource.setMaximumPoolSize(maxConcurrent);
+        dataSource.setMinimumIdle(0);
+        dataSource.setReadOnly(true);
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(fetchSize);
+        this.permits = new Semaphore(maxConcurrent);
+        this.maxDuration = Duration.ofSeconds(maxSeconds);
+    }
+
+    // A stream slot, or false when all are taken; release() when done
+    public boolean tryAcquire() {
+        return permits.tryAcquire();
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    // Hands the posts (one author's when authorId is set, after the cursor
+    // when given) to the sink newest first, chunkSize at a time. Counters are
+    // as stored, without unflushed deltas; the caller applies those. Returns
+    // the cursor of the last post handed over when the time limit cut the
+    // read short, or null once every post has been read.
+    public FeedCursor read(Long authorId, FeedCursor after, int chunkSize, Consumer<List<PostView>> sink) {
+        long deadline = System.nanoTime() + maxDuration.toNanos();
+        List<String> conditions = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+        if (authorId != null) {
+            conditions.add("p.user_id = ?");
+            args.add(authorId);
+        }
+        if (after != null) {
+            Timestamp createdAt = Timestamp.from(after.createdAt());
+            conditions.add(AFTER);
+            args.add(createdAt);
+            args.add(createdAt);
+            args.add(after.id());
+        }
+        String sql = COLUMNS + (conditions.isEmpty() ? "" : "WHERE " + String.join(" AND ", conditions)) + ORDER;
+        return jdbcTemplate.query(sql, (ResultSet rs) -> {
+            List<PostView> chunk = new ArrayList<>(chunkSize);
+            while (rs.next()) {
+                chunk.add(toView(rs));
+                if (chunk.size() == chunkSize) {
+                    sink.accept(chunk);
+                    PostView last = chunk.get(chunk.size() - 1);
+                    chunk = new ArrayList<>(chunkSize);
+                    if (System.nanoTime() > deadline) {
+                        System.err.println("[FeedStreamReader] Stream cut off after " + maxDuration.toSeconds() + "s");
+                        return FeedCursor.of(last.createdAt(), last.id());
+                    }
+                }
+            }
+            if (!chunk.isEmpty()) {
+                sink.accept(chunk);
+            }
+            return null;
+        }, args.toArray());
+    }
+
+    private static PostView toView(ResultSet rs) throws SQLException {
+        Timestamp updatedAt = rs.getTimestamp("updated_at");
+        return new PostView(
+            rs.getLong("id"),
+            rs.getLong("user_id"),
+            rs.getString("username"),
+            rs.getString("profile_picture_url"),
+            rs.getString("content"),
+            rs.getString("image_url"),
+            rs.getTimestamp("created_at").toInstant(),
+            updatedAt == null ? null : updatedAt.toInstant(),
+            rs.getLong("like_count"),
+            rs.getLong("dislike_count"),
+            rs.getLong("comment_count")
+        );
+    }
+
+    @PreDestroy
+    void close() {
+        dataSource.close();
+    }
+}
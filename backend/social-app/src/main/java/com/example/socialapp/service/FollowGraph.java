@@ -0,0 +1,440 @@
+package com.example.socialapp.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+// The whole follow graph in memory, in compressed sparse row form, so
+// isFollowing and the follower/following counts are plain array reads.
+// Both directions are kept: out-edges (who a user follows) and in-edges
+// (who follows a user). User ids index rows directly and are split into
+// segments of SEGMENT_SIZE users. A follow or unfollow copies just the row
+// it touches and swaps the copy in, so readers never lock and never see a
+// half-applied row.
+//
+// Loaded at startup with one ordered scan of user_follows (the in-edges are
+// transposed from the out-edges in memory) and updated by UserFollowService
+// after each commit. Until the load has succeeded, ready() is false and
+// callers should query user_follows instead.
+@Component
+public class FollowGraph {
+
+    private static final int SEGMENT_BITS = 12;
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_BITS;
+    private static final int ROW_MASK = SEGMENT_SIZE - 1;
+
+    // Rows of SEGMENT_SIZE consecutive user ids. As built, the targets of row
+    // r are targets[offsets[r] .. offsets[r + 1]), sorted ascending. A follow
+    // or unfollow copies only the row it touches and publishes the copy in
+    // changed, which readers check first, so a write costs the degree of one
+    // user rather than the size of the segment.
+    static final class Segment {
+
+        static final Segment EMPTY = new Segment(new int[SEGMENT_SIZE + 1], new long[0]);
+
+        final int[] offsets;
+        final long[] targets;
+        // Rows replaced since the build; null where the built row still holds
+        private final AtomicReferenceArray<long[]> changed = new AtomicReferenceArray<>(SEGMENT_SIZE);
+        private volatile long edges;
+
+        Segment(int[] offsets, long[] targets) {
+            this.offsets = offsets;
+            this.targets = targets;
+            this.edges = targets.length;
+        }
+
+        int degree(int row) {
+            long[] own = changed.get(row);
+            return own != null ? own.length : offsets[row + 1] - offsets[row];
+        }
+
+        boolean contains(int row, long target) {
+            long[] own = changed.get(row);
+            return own != null
+                ? Arrays.binarySearch(own, target) >= 0
+                : Arrays.binarySearch(targets, offsets[row], offsets[row + 1], target) >= 0;
+        }
+
+        // The row's targets, ascending (a copy)
+        long[] row(int row) {
+            long[] own = changed.get(row);
+            return own != null ? own.clone() : Arrays.copyOfRange(targets, offsets[row], offsets[row + 1]);
+        }
+
+        // Callers serialize writes. False when the edge was already there.
+        boolean add(int row, long target) {
+            long[] current = row(row);
+            int at = Arrays.binarySearch(current, target);
+            if (at >= 0) {
+                return false;
+            }
+            int insertAt = -at - 1;
+            long[] next = new long[current.length + 1];
+            System.arraycopy(current, 0, next, 0, insertAt);
+            next[insertAt] = target;
+            System.arraycopy(current, insertAt, next, insertAt + 1, current.length - insertAt);
+            changed.set(row, next);
+            edges++;
+            return true;
+        }
+
+        // Callers serialize writes. False when there was no such edge.
+        boolean remove(int row, long target) {
+            long[] current = row(row);
+            int at = Arrays.binarySearch(current, target);
+            if (at < 0) {
+                return false;
+            }
+            long[] next = new long[current.length - 1];
+            System.arraycopy(current, 0, next, 0, at);
+            System.arraycopy(current, at + 1, next, at, current.length - at - 1);
+            changed.set(row, next);
+            edges--;
+            return true;
+        }
+
+        long edges() {
+            return edges;
+        }
+
+        long bytes() {
+            long bytes = 32L + 4L * offsets.length + 8L * targets.length + 4L * SEGMENT_SIZE;
+            for (int r = 0; r < SEGMENT_SIZE; r++) {
+                long[] own = changed.get(r);
+                if (own != null) {
+                    bytes += 16L + 8L * own.length;
+                }
+            }
+            return bytes;
+        }
+    }
+
+    // One direction of the graph
+    static final class Adjacency {
+
+        private volatile Segment[] segments;
+
+        Adjacency(Segment[] segments) {
+            this.segments = segments;
+        }
+
+        Segment segmentOf(long userId) {
+            Segment[] current = segments;
+            long index = userId >>> SEGMENT_BITS;
+            if (userId < 0 || index >= current.length || current[(int) index] == null) {
+                return Segment.EMPTY;
+            }
+            return current[(int) index];
+        }
+
+        int degree(long userId) {
+            return segmentOf(userId).degree(row(userId));
+        }
+
+        long[] neighbours(long userId) {
+            return segmentOf(userId).row(row(userId));
+        }
+
+        boolean contains(long from, long to) {
+            return segmentOf(from).contains(row(from), to);
+        }
+
+        // Callers serialize writes
+        void add(long from, long to) {
+            Segment segment = segmentOf(from);
+            if (segment == Segment.EMPTY) {
+                // A user in a segment with no edges yet; publish the segment
+                // only once its row is in place
+                segment = new Segment(new int[SEGMENT_SIZE + 1], new long[0]);
+                segment.add(row(from), to);
+                install(from, segment);
+                return;
+            }
+            segment.add(row(from), to);
+        }
+
+        void remove(long from, long to) {
+            segmentOf(from).remove(row(from), to);
+        }
+
+        private void install(long userId, Segment segment) {
+            int index = (int) (userId >>> SEGMENT_BITS);
+            Segment[] current = segments;
+            Segment[] next = Arrays.copyOf(current, Math.max(current.length, index + 1));
+            next[index] = segment;
+            segments = next;
+        }
+
+        long edges() {
+            long edges = 0;
+            for (Segment segment : segments) {
+                if (segment != null) {
+                    edges += segment.edges();
+                }
+            }
+            return edges;
+        }
+
+        long bytes() {
+            Segment[] current = segments;
+            long bytes = 16L + 8L * current.length;
+            for (Segment segment : current) {
+                if (segment != null) {
+                    bytes += segment.bytes();
+                }
+            }
+            return bytes;
+        }
+
+        // Reverses every edge. Walking sources in ascending order fills each
+        // reversed row in ascending order too, so no sorting is needed.
+        Adjacency transpose() {
+            Segment[] source = segments;
+            List<int[]> counts = new ArrayList<>();
+            for (int i = 0; i < source.length; i++) {
+                Segment segment = source[i];
+                if (segment == null) {
+                    continue;
+                }
+                for (int r = 0; r < SEGMENT_SIZE; r++) {
+                    if (segment.degree(r) == 0) {
+                        continue;
+                    }
+                    for (long target : segment.row(r)) {
+                        int index = (int) (target >>> SEGMENT_BITS);
+                        while (counts.size() <= index) {
+                            counts.add(null);
+                        }
+                        if (counts.get(index) == null) {
+                            counts.set(index, new int[SEGMENT_SIZE + 1]);
+                        }
+                        counts.get(index)[row(target) + 1]++;
+                    }
+                }
+            }
+
+            int[][] offsets = new int[counts.size()][];
+            long[][] targets = new long[counts.size()][];
+            int[][] cursors = new int[counts.size()][];
+            for (int i = 0; i < offsets.length; i++) {
+                offsets[i] = counts.get(i);
+                if (offsets[i] == null) {
+                    continue;
+                }
+                for (int r = 1; r < offsets[i].length; r++) {
+                    offsets[i][r] += offsets[i][r - 1];
+                }
+                targets[i] = new long[offsets[i][SEGMENT_SIZE]];
+                cursors[i] = Arrays.copyOf(offsets[i], SEGMENT_SIZE);
+            }
+
+            for (int i = 0; i < source.length; i++) {
+                Segment segment = source[i];
+                if (segment == null) {
+                    continue;
+                }
+                for (int r = 0; r < SEGMENT_SIZE; r++) {
+                    if (segment.degree(r) == 0) {
+                        continue;
+                    }
+                    long from = ((long) i << SEGMENT_BITS) | r;
+                    for (long to : segment.row(r)) {
+                        int index = (int) (to >>> SEGMENT_BITS);
+                        targets[index][cursors[index][row(to)]++] = from;
+                    }
+                }
+            }
+
+            // Segments are built only once filled, as their edge count is fixed then
+            Segment[] reversed = new Segment[offsets.length];
+            for (int i = 0; i < reversed.length; i++) {
+                if (offsets[i] != null) {
+                    reversed[i] = new Segment(offsets[i], targets[i]);
+                }
+            }
+            return new Adjacency(reversed);
+        }
+    }
+
+    // Builds one direction from edges sorted by (from, to)
+    static final class Builder {
+
+        private final List<Segment> segments = new ArrayList<>();
+        private int segmentIndex = -1;
+        private int[] offsets;
+        private long[] targets = new long[1024];
+        private int size;
+        private long lastFrom = -1;
+        private long lastTo = -1;
+
+        void add(long from, long to) {
+            if (from < 0 || from < lastFrom || (from == lastFrom && to <= lastTo)) {
+                // Out of order or repeated; unique_follow rules out the latter
+                throw new IllegalArgumentException("Edges must be sorted and unique");
+            }
+            lastFrom = from;
+            lastTo = to;
+
+            int index = (int) (from >>> SEGMENT_BITS);
+            if (index != segmentIndex) {
+                finishSegment();
+                segmentIndex = index;
+                offsets = new int[SEGMENT_SIZE + 1];
+            }
+            offsets[row(from) + 1]++;
+            if (size == targets.length) {
+                targets = Arrays.copyOf(targets, size * 2);
+            }
+            targets[size++] = to;
+        }
+
+        private void finishSegment() {
+            if (segmentIndex < 0) {
+                return;
+            }
+            for (int r = 1; r < offsets.length; r++) {
+                offsets[r] += offsets[r - 1];
+            }
+            while (segments.size() <= segmentIndex) {
+                segments.add(null);
+            }
+            segments.set(segmentIndex, new Segment(offsets, Arrays.copyOf(targets, size)));
+            size = 0;
+        }
+
+        Adjacency build() {
+            finishSegment();
+            segmentIndex = -1;
+            return new Adjacency(segments.toArray(new Segment[0]));
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile Adjacency following = new Adjacency(new Segment[0]);
+    private volatile Adjacency followers = new Adjacency(new Segment[0]);
+    private volatile boolean ready;
+
+    public FollowGraph(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+
+        Gauge.builder("follow.graph.edges", () -> following.edges())
+                .description("Follow edges held in memory")
+                .register(meterRegistry);
+        Gauge.builder("follow.graph.bytes", () -> following.bytes() + followers.bytes())
+                .description("Approximate size of the in-memory follow graph")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void load() {
+        try {
+            long started = System.nanoTime();
+            Builder builder = new Builder();
+            jdbcTemplate.query("SELECT follower_id, followed_id FROM user_follows ORDER BY follower_id, followed_id",
+                rs -> {
+                    builder.add(rs.getLong("follower_id"), rs.getLong("followed_id"));
+                });
+            install(builder.build());
+            long millis = (System.nanoTime() - started) / 1_000_000;
+            System.out.println("[FollowGraph] Loaded " + following.edges() + " follow edges in " + millis
+                + " ms, ~" + (following.bytes() + followers.bytes()) / 1024 + " KiB");
+        } catch (Exception e) {
+            System.err.println("[FollowGraph] Could not load follow graph: " + e.getMessage());
+        }
+    }
+
+    synchronized void install(Adjacency out) {
+        following = out;
+        followers = out.transpose();
+        ready = true;
+    }
+
+    public boolean ready() {
+        return ready;
+    }
+
+    public boolean isFollowing(long followerId, long followedId) {
+        return following.contains(followerId, followedId);
+    }
+
+    public int followerCount(long userId) {
+        return followers.degree(userId);
+    }
+
+    public int followingCount(long userId) {
+        return following.degree(userId);
+    }
+
+    // Ids the user follows, ascending (a copy)
+    public long[] followingOf(long userId) {
+        return following.neighbours(userId);
+    }
+
+    // Ids following the user, ascending (a copy)
+    public long[] followersOf(long userId) {
+        return followers.neighbours(userId);
+    }
+
+    // Apply a follow or unfollow once the surrounding transaction commits
+    public void follow(Long followerId, Long followedId) {
+        afterCommit(() -> apply(followerId, followedId, true));
+    }
+
+    public void unfollow(Long followerId, Long followedId) {
+        afterCommit(() -> apply(followerId, followedId, false));
+    }
+
+    // Drop every edge of a deleted user, in both directions, once the delete
+    // commits; the database cascades their user_follows rows unseen
+    public void removeUser(Long userId) {
+        afterCommit(() -> remove(userId));
+    }
+
+    private synchronized void remove(long userId) {
+        for (long followedId : following.neighbours(userId)) {
+            apply(userId, followedId, false);
+        }
+        for (long followerId : followers.neighbours(userId)) {
+            apply(followerId, userId, false);
+        }
+    }
+
+    private synchronized void apply(long followerId, long followedId, boolean add) {
+        if (add) {
+            following.add(followerId, followedId);
+            followers.add(followedId, followerId);
+        } else {
+            following.remove(followerId, followedId);
+            followers.remove(followedId, followerId);
+        }
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    private static int row(long userId) {
+        return (int) (userId & ROW_MASK);
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.socialapp.service;
+
+import java.util.Arrays;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+// A user's following and follower ids as sorted long[]s, and intersections
+// of them by galloping merge. The arrays are FollowGraph's rows when the
+// graph is loaded. Otherwise they are read from user_follows in id order
+// (unique_follow / idx_followed) and cached, weighed in bytes against
+// follows.array-cache-bytes; UserFollowService drops the two affected
+// arrays after each follow or unfollow commits.
+@Component
+public class FollowSets {
+
+    private record Key(long userId, boolean followers) {}
+
+    private final FollowGraph followGraph;
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache<Key, long[]> cache;
+
+    public FollowSets(FollowGraph followGraph,
+                      JdbcTemplate jdbcTemplate,
+                      MeterRegistry meterRegistry,
+                      @Value("${follows.array-cache-bytes:33554432}") long maxBytes) {
+        this.followGraph = followGraph;
+        this.jdbcTemplate = jdbcTemplate;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Key key, long[] ids) -> 32 + 8 * ids.length)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "follow-sets");
+    }
+
+    // Ids the user follows, ascending
+    public long[] following(long userId) {
+        if (followGraph.ready()) {
+            return followGraph.followingOf(userId);
+        }
+        return cache.get(new Key(userId, false), key -> load(
+            "SELECT followed_id FROM user_follows WHERE follower_id = ? ORDER BY followed_id", userId));
+    }
+
+    // Ids following the user, ascending
+    public long[] followers(long userId) {
+        if (followGraph.ready()) {
+            return followGraph.followersOf(userId);
+        }
+        return cache.get(new Key(userId, true), key -> load(
+            "SELECT follower_id FROM user_follows WHERE followed_id = ? ORDER BY follower_id", userId));
+    }
+
+    // Ids the user follows that follow them back, ascending
+    public long[] friends(long userId) {
+        return intersect(following(userId), followers(userId));
+    }
+
+    // Drop the cached arrays a follow or unfollow changes, once it commits
+    public void invalidate(Long followerId, Long followedId) {
+        Runnable invalidate = () -> {
+            cache.invalidate(new Key(followerId, false));
+            cache.invalidate(new Key(followedId, true));
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate.run();
+                }
+            });
+        } else {
+            invalidate.run();
+        }
+    }
+
+    // Drop every cached array once a user's delete commits. Any array may
+    // hold their id, and deletes are rare enough not to track which.
+    public void removeUser(Long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidateAll();
+                }
+            });
+        } else {
+            cache.invalidateAll();
+        }
+    }
+
+    private long[] load(String sql, long userId) {
+        long[][] ids = { new long[16] };
+        int[] size = { 0 };
+        jdbcTemplate.query(sql, rs -> {
+            if (size[0] == ids[0].length) {
+                ids[0] = Arrays.copyOf(ids[0], size[0] * 2);
+            }
+            ids[0][size[0]++] = rs.getLong(1);
+        }, userId);
+        return Arrays.copyOf(ids[0], size[0]);
+    }
+
+    // Walks the shorter array and gallops through the longer one, so the
+    // cost is O(m log(n / m)) rather than O(m + n) for very uneven sizes
+    static long[] intersect(long[] a, long[] b) {
+        long[] small = a.length <= b.length ? a : b;
+        long[] large = small == a ? b : a;
+        long[] result = new long[small.length];
+        int size = 0;
+        int from = 0;
+        for (long id : small) {
+            from = gallop(large, from, id);
+            if (from == large.length) {
+                break;
+            }
+            if (large[from] == id) {
+                result[size++] = id;
+                from++;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    // First index at or after from whose value is >= target: doubling steps
+    // to bracket it, then a binary search inside the bracket
+    static int gallop(long[] array, int from, long target) {
+        if (from >= array.length || array[from] >= target) {
+            return from;
+        }
+        int step = 1;
+        int low = from;
+        int high = from + step;
+        while (high < array.length && array[high] < target) {
+            low = high;
+            step <<= 1;
+            high = from + step;
+        }
+        high = Math.min(high, array.length);
+        int at = Arrays.binarySearch(array, low + 1, high, target);
+        return at >= 0 ? at : -at - 1;
+    }
+}
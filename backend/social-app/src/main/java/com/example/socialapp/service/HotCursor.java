@@ -0,0 +1,30 @@
+package com.example.socialapp.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Opaque cursor for ?sort=hot: the (score, id) of the last post a client
+// received, and whether it came from the in-memory window or from the
+// persisted archive past it. Scores are carried as raw double bits.
+public record HotCursor(boolean archived, double score, Long id) {
+
+    public String encode() {
+        String raw = (archived ? "a" : "w") + ":" + Long.toHexString(Double.doubleToLongBits(score)) + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static HotCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":");
+            if (parts.length != 3 || !(parts[0].equals("a") || parts[0].equals("w"))) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            double score = Double.longBitsToDouble(Long.parseUnsignedLong(parts[1], 16));
+            return new HotCursor(parts[0].equals("a"), score, Long.parseLong(parts[2]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package com.example.socialapp.service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.socialapp.model.Post;
+import com.example.socialapp.repository.HotKey;
+import com.example.socialapp.repository.PostRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// "Hot" ordering for the feed, in the style of Reddit:
+//   score = sign(n) * log10(max(|n|, 1)) + created_at epoch seconds / 45000
+//   n     = likes - dislikes + 2 * comments
+// Newer posts get a higher time term instead of older ones decaying, so a
+// score only moves when the post's counters do. Posts from the last
+// hot.window-hours are held in a skip list ordered by score and re-ranked in
+// place on every reaction or comment; top-N is a walk from the head. Scores
+// are written to posts.hot_score periodically, and pages past the window are
+// read from that column.
+@Service
+public class HotRankingService {
+
+    private static final double DECAY_SECONDS = 45_000;
+    private static final int COMMENT_WEIGHT = 2;
+    private static final int RESCORE_BATCH_SIZE = 500;
+
+    private static final String PERSIST_SQL = "UPDATE posts SET hot_score = ? WHERE id = ?";
+
+    // Same formula in SQL, for posts outside the window whose counters changed
+    private static final String RESCORE_SQL_PREFIX =
+        "UPDATE posts SET hot_score = " +
+        "SIGN(like_count - dislike_count + 2 * comment_count) " +
+        "* LOG10(GREATEST(ABS(like_count - dislike_count + 2 * comment_count), 1)) " +
+        "+ UNIX_TIMESTAMP(created_at) / 45000 WHERE id IN (";
+
+    private static final class Entry {
+        final Long id;
+        final Instant createdAt;
+        long likes;
+        long dislikes;
+        long comments;
+        Rank rank;
+        boolean dirty;
+        boolean removed;
+
+        Entry(Long id, Instant createdAt, long likes, long dislikes, long comments) {
+            this.id = id;
+            this.createdAt = createdAt;
+            this.likes = likes;
+            this.dislikes = dislikes;
+            this.comments = comments;
+        }
+    }
+
+    // Immutable skip list key; an entry swaps in a new one when its score moves
+    private record Rank(double score, Long id) {}
+
+    private static final Comparator<Rank> HOTTEST_FIRST =
+        Comparator.comparingDouble(Rank::score).thenComparing(Rank::id).reversed();
+
+    public record HotPage(List<Long> postIds, HotCursor nextCursor) {}
+
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<Rank> ranking = new ConcurrentSkipListSet<>(HOTTEST_FIRST);
+    // Posts outside the window whose counters changed since the last persist
+    private final Set<Long> staleArchived = ConcurrentHashMap.newKeySet();
+
+    private final PostRepository postRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration window;
+
+    public HotRankingService(PostRepository postRepository,
+                             JdbcTemplate jdbcTemplate,
+                             MeterRegistry meterRegistry,
+                             @Value("${hot.window-hours:72}") long windowHours) {
+        this.postRepository = postRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.window = Duration.ofHours(windowHours);
+
+        Gauge.builder("hot.tracked.posts", entries::size)
+                .description("Posts ranked in memory for the hot feed")
+                .register(meterRegistry);
+    }
+
+    static double score(long likes, long dislikes, long comments, Instant createdAt) {
+        long n = likes - dislikes + COMMENT_WEIGHT * comments;
+        double order = Math.log10(Math.max(Math.abs(n), 1));
+        return Math.signum(n) * order + createdAt.getEpochSecond() / DECAY_SECONDS;
+    }
+
+    // Seed the window from the counter columns; the buffer is empty at startup
+    @PostConstruct
+    public void load() {
+        try {
+            Timestamp since = Timestamp.from(windowStart());
+            jdbcTemplate.query(
+                "SELECT id, created_at, like_count, dislike_count, comment_count FROM posts WHERE created_at >= ?",
+                rs -> {
+                    Entry entry = new Entry(rs.getLong("id"), rs.getTimestamp("created_at").toInstant(),
+                        rs.getLong("like_count"), rs.getLong("dislike_count"), rs.getLong("comment_count"));
+                    entries.put(entry.id, entry);
+                    rerank(entry);
+                },
+                since);
+            System.out.println("[HotRankingService] Loaded " + entries.size() + " posts into the hot ranking");
+        } catch (Exception e) {
+            System.err.println("[HotRankingService] Could not load hot ranking: " + e.getMessage());
+        }
+    }
+
+    // A new post enters the window with no engagement yet
+    public void track(Post post) {
+        Entry entry = new Entry(post.getId(), post.getCreatedAt(), 0, 0, 0);
+        synchronized (entry) {
+            if (entries.putIfAbsent(entry.id, entry) == null) {
+                rerank(entry);
+            }
+        }
+    }
+
+    public void untrack(Long postId) {
+        Entry entry = entries.remove(postId);
+        if (entry != null) {
+            synchronized (entry) {
+                entry.removed = true;
+                ranking.remove(entry.rank);
+            }
+        }
+        staleArchived.remove(postId);
+    }
+
+    // Called by PostCounterService with the same deltas the counters get
+    public void onCountersChanged(Long postId, long likeDelta, long dislikeDelta, long commentDelta) {
+        Entry entry = entries.get(postId);
+        if (entry == null) {
+            staleArchived.add(postId);
+            return;
+        }
+        synchronized (entry) {
+            if (entry.removed) {
+                return;
+            }
+            entry.likes += likeDelta;
+            entry.dislikes += dislikeDelta;
+            entry.comments += commentDelta;
+            rerank(entry);
+        }
+    }
+
+    // Caller holds the entry's lock (or owns it exclusively). The new rank is
+    // added before the old one is removed, so a concurrent reader may see the
+    // post twice but never miss it; pages de-duplicate.
+    private void rerank(Entry entry) {
+        Rank previous = entry.rank;
+        entry.rank = new Rank(score(entry.likes, entry.dislikes, entry.comments, entry.createdAt), entry.id);
+        entry.dirty = true;
+        ranking.add(entry.rank);
+        if (previous != null && !previous.equals(entry.rank)) {
+            ranking.remove(previous);
+        }
+    }
+
+    // Window posts by score first, then older posts by their persisted score
+    public HotPage getPage(HotCursor after, int limit) {
+        List<Long> postIds = new ArrayList<>(limit);
+        Instant windowStart = windowStart();
+
+        if (after == null || !after.archived()) {
+            NavigableSet<Rank> from = after == null
+                    ? ranking
+                    : ranking.tailSet(new Rank(after.score(), after.id()), false);
+            Set<Long> seen = new HashSet<>();
+            Rank last = null;
+            Iterator<Rank> iterator = from.iterator();
+            while (postIds.size() < limit && iterator.hasNext()) {
+                Rank rank = iterator.next();
+                if (seen.add(rank.id())) {
+                    postIds.add(rank.id());
+                    last = rank;
+                }
+            }
+            if (postIds.size() == limit) {
+                return new HotPage(postIds, new HotCursor(false, last.score(), last.id()));
+            }
+            after = null;
+        }
+
+        int remaining = limit - postIds.size();
+        List<HotKey> archived = after == null
+                ? postRepository.findHotKeys(windowStart, Limit.of(remaining))
+                : postRepository.findHotKeysAfter(windowStart, after.score(), after.id(), Limit.of(remaining));
+        for (HotKey key : archived) {
+            postIds.add(key.id());
+        }
+        if (archived.size() < remaining) {
+            return new HotPage(postIds, null);
+        }
+        HotKey last = archived.get(archived.size() - 1);
+        return new HotPage(postIds, new HotCursor(true, last.hotScore(), last.id()));
+    }
+
+    // Write changed scores back and drop posts that have aged out of the window
+    @Scheduled(fixedDelayString = "${hot.persist-interval-ms:30000}", initialDelayString = "${hot.persist-interval-ms:30000}")
+    public synchronized void persist() {
+        Instant windowStart = windowStart();
+        List<Object[]> batch = new ArrayList<>();
+        for (Entry entry : entries.values()) {
+            synchronized (entry) {
+                if (entry.dirty) {
+                    batch.add(new Object[] { entry.rank.score(), entry.id });
+                    entry.dirty = false;
+                }
+                if (entry.createdAt.isBefore(windowStart)) {
+                    entry.removed = true;
+                    entries.remove(entry.id, entry);
+                    ranking.remove(entry.rank);
+                }
+            }
+        }
+
+        try {
+            if (!batch.isEmpty()) {
+                jdbcTemplate.batchUpdate(PERSIST_SQL, batch);
+            }
+            rescoreArchived();
+        } catch (Exception e) {
+            System.err.println("[HotRankingService] Persisting hot scores failed: " + e.getMessage());
+            for (Object[] row : batch) {
+                Entry entry = entries.get((Long) row[1]);
+                if (entry != null) {
+                    synchronized (entry) {
+                        entry.dirty = true;
+                    }
+                }
+            }
+        }
+    }
+
+    private void rescoreArchived() {
+        if (staleArchived.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(staleArchived);
+        staleArchived.removeAll(ids);
+        for (int from = 0; from < ids.size(); from += RESCORE_BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + RESCORE_BATCH_SIZE, ids.size()));
+            String placeholders = String.join(", ", Collections.nCopies(batch.size(), "?"));
+            try {
+                jdbcTemplate.update(RESCORE_SQL_PREFIX + placeholders + ")", batch.toArray());
+            } catch (RuntimeException e) {
+                // Retry what is left on the next round
+                staleArchived.addAll(ids.subList(from, ids.size()));
+                throw e;
+            }
+        }
+    }
+
+    private Instant windowStart() {
+        return Instant.now().minus(window);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        persist();
+    }
+}
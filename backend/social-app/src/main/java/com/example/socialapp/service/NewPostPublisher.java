@@ -0,0 +1,122 @@
+package com.example.socialapp.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.socialapp.model.Post;
+import com.example.socialapp.repository.UserFollowRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Pushes "new posts" events over STOMP so feeds can stop polling. Created
+// posts are queued and sent every feed.push.interval-ms as one frame to
+// /topic/feed and one frame per follower to /topic/feed/{followerId}, so a
+// burst costs each subscriber at most one frame per interval. Authors whose
+// posts TimelineService pulls (above timeline.fanout.follower-threshold) get
+// one frame on the shared /topic/feed/author/{authorId} instead, which their
+// followers subscribe to, so a post costs one frame however many followers
+// they have. Frames carry ids and a count only; clients fetch the posts
+// through the delta or feed endpoints.
+@Component
+public class NewPostPublisher {
+
+    // Ids carried per frame; the count still covers everything in the interval
+    private static final int MAX_IDS_PER_FRAME = 50;
+
+    public record NewPostsEvent(List<Long> postIds, int count) {}
+
+    private record Created(Long postId, Long authorId) {}
+
+    private final ConcurrentLinkedQueue<Created> pending = new ConcurrentLinkedQueue<>();
+    private final SimpMessagingTemplate messagingTemplate;
+    private final UserFollowRepository userFollowRepository;
+    private final TimelineService timelineService;
+
+    private final Counter pushedPosts;
+    private final Counter followerFrames;
+    private final Counter authorFrames;
+
+    public NewPostPublisher(SimpMessagingTemplate messagingTemplate,
+                            UserFollowRepository userFollowRepository,
+                            TimelineService timelineService,
+                            MeterRegistry meterRegistry) {
+        this.messagingTemplate = messagingTemplate;
+        this.userFollowRepository = userFollowRepository;
+        this.timelineService = timelineService;
+
+        this.pushedPosts = Counter.builder("feed.push.posts")
+                .description("New posts announced over STOMP")
+                .register(meterRegistry);
+        this.followerFrames = Counter.builder("feed.push.follower.frames")
+                .description("Frames sent to per-follower feed topics")
+                .register(meterRegistry);
+        this.authorFrames = Counter.builder("feed.push.author.frames")
+                .description("Frames sent to shared author topics of pulled accounts")
+                .register(meterRegistry);
+    }
+
+    public void postCreated(Post post) {
+        pending.add(new Created(post.getId(), post.getUser().getId()));
+    }
+
+    @Scheduled(fixedDelayString = "${feed.push.interval-ms:2000}")
+    public void publish() {
+        List<Long> all = new ArrayList<>();
+        Map<Long, List<Long>> byAuthor = new HashMap<>();
+        Created created;
+        while ((created = pending.poll()) != null) {
+            all.add(created.postId());
+            byAuthor.computeIfAbsent(created.authorId(), id -> new ArrayList<>()).add(created.postId());
+        }
+        if (all.isEmpty()) {
+            return;
+        }
+
+        try {
+            messagingTemplate.convertAndSend("/topic/feed", event(all));
+
+            // One follower lookup per pushed author with new posts, merged per
+            // follower; pulled authors go to their shared topic
+            Map<Long, List<Long>> byFollower = new HashMap<>();
+            int shared = 0;
+            for (Map.Entry<Long, List<Long>> entry : byAuthor.entrySet()) {
+                if (timelineService.isPulled(entry.getKey())) {
+                    messagingTemplate.convertAndSend("/topic/feed/author/" + entry.getKey(), event(entry.getValue()));
+                    shared++;
+                    continue;
+                }
+                for (Long followerId : userFollowRepository.findFollowerIds(entry.getKey())) {
+                    byFollower.computeIfAbsent(followerId, id -> new ArrayList<>()).addAll(entry.getValue());
+                }
+            }
+            byFollower.forEach((followerId, postIds) ->
+                messagingTemplate.convertAndSend("/topic/feed/" + followerId, event(postIds)));
+
+            pushedPosts.increment(all.size());
+            followerFrames.increment(byFollower.size());
+            authorFrames.increment(shared);
+        } catch (Exception e) {
+            // Pushes are best effort; clients still catch up through the delta endpoint
+            System.err.println("[NewPostPublisher] Push failed: " + e.getMessage());
+        }
+    }
+
+    // Newest first, like the feed
+    private NewPostsEvent event(List<Long> postIds) {
+        List<Long> newestFirst = new ArrayList<>(postIds);
+        Collections.reverse(newestFirst);
+        List<Long> ids = newestFirst.size() > MAX_IDS_PER_FRAME
+                ? List.copyOf(newestFirst.subList(0, MAX_IDS_PER_FRAME))
+                : newestFirst;
+        return new NewPostsEvent(ids, postIds.size());
+    }
+}
@@ -1,8 +1,13 @@
 package com.example.socialapp.service;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -16,10 +21,16 @@ public class NotificationService {
 
     private final NotificationRepository notificationRepository;
     private final UserRepository userRepository;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final Duration likeWindow;
 
-    public NotificationService(NotificationRepository notificationRepository, UserRepository userRepository) {
+    public NotificationService(NotificationRepository notificationRepository, UserRepository userRepository,
+                               SimpMessagingTemplate messagingTemplate,
+                               @Value("${notifications.like-window-minutes:10}") long likeWindowMinutes) {
     this.notificationRepository = notificationRepository;
     this.userRepository = userRepository;
+    this.messagingTemplate = messagingTemplate;
+    this.likeWindow = Duration.ofMinutes(likeWindowMinutes);
     }
 
     // Create a follow notification
@@ -40,25 +51,74 @@ public class NotificationService {
     return null;
     }
 
-    // Create a like notification
+    // Record a like on the owner's post. Likes on the same post collapse into
+    // one row while it keeps getting likes within the window ("alice and 41
+    // others"), and a liker is only ever counted once per post, so toggling
+    // changes nothing. Returns the notification when it should be pushed now;
+    // at most one push goes out per window, later ones are sent by
+    // pushPendingLikes once the window has passed.
     @Transactional
     public Notification createLikeNotification(Long postOwnerId, Long likerUserId, Long postId) {
+    if (notificationRepository.countLikeActor(postId, likerUserId) > 0) {
+    return null;
+    }
     Optional<User> liker = userRepository.findById(likerUserId);
-    
-    if (liker.isPresent()) {
-    Notification notification = new Notification();
+    if (liker.isEmpty()) {
+    return null;
+    }
+    // Without this two first likers could each create a notification, and
+    // two later ones could each add 1 to the same stale actor_count
+    notificationRepository.lockLikeTarget(postId);
+
+    LocalDateTime now = LocalDateTime.now();
+    LocalDateTime windowStart = now.minus(likeWindow);
+    Notification notification = notificationRepository
+        .findFirstByUserIdAndPostIdAndTypeAndCreatedAtAfterOrderByCreatedAtDesc(postOwnerId, postId, "LIKE", windowStart)
+        .orElse(null);
+    boolean created = notification == null;
+    if (created) {
+    notification = new Notification();
     notification.setUserId(postOwnerId);
     notification.setType("LIKE");
+    notification.setPostId(postId);
+    notification.setActorCount(0);
+    notification = notificationRepository.saveAndFlush(notification);
+    }
+
+    // Lost to a concurrent toggle by the same liker
+    if (notificationRepository.claimLikeActor(postId, likerUserId, notification.getId()) == 0) {
+    if (created) {
+    notificationRepository.delete(notification);
+    }
+    return null;
+    }
+
     notification.setActorId(likerUserId);
     notification.setActorUsername(liker.get().getUsername());
-    notification.setPostId(postId);
-    
-    return notificationRepository.save(notification);
+    notification.setActorCount(notification.getActorCount() + 1);
+    // The window rolls with each new liker, and the owner sees it again
+    notification.setCreatedAt(now);
+    notification.setIsRead(false);
+
+    if (notification.pushDue(windowStart)) {
+    notification.markPushed(now);
+    return notification;
     }
-    
+    notification.markPushPending();
     return null;
     }
 
+    // Trailing push for aggregated likes held back during their window
+    @Scheduled(fixedDelayString = "${notifications.like-push-check-ms:30000}")
+    @Transactional
+    public void pushPendingLikes() {
+    LocalDateTime now = LocalDateTime.now();
+    for (Notification notification : notificationRepository.findDuePushes(now.minus(likeWindow))) {
+    notification.markPushed(now);
+    messagingTemplate.convertAndSend("/topic/notifications/" + notification.getUserId(), notification);
+    }
+    }
+
     // Create a flagged post notification
     @Transactional
     public Notification createFlaggedNotification(Long postOwnerId, Long postId) {
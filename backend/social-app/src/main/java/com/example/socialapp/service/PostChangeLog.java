@@ -0,0 +1,203 @@
+package com.example.socialapp.service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Append-only post_change_log behind GET /api/posts/delta. Creates, edits,
+// deletes and counter changes append one row each; a poll reads the rows
+// after the client's cursor (the last log id it saw), so its cost follows
+// what changed rather than the size of the feed. Rows are pruned after
+// delta.retention-hours; post_change_log_state keeps the highest pruned id,
+// so a cursor from before the prune is known to be stale even once the
+// log has emptied.
+//
+// Rows are appended only once the change itself has committed, each in a
+// transaction of its own, so a log row never waits behind a long-running
+// business transaction and a reader never sees a change before its row.
+@Component
+public class PostChangeLog {
+
+    public enum ChangeType { CREATED, UPDATED, DELETED, COUNTERS }
+
+    // A row younger than this may have a lower-id neighbour that is not
+    // committed yet; reads stop in front of it so no change is skipped.
+    // Appending transactions hold a single INSERT, so this bounds them.
+    private static final int SETTLE_SECONDS = 1;
+    private static final int PRUNE_BATCH_SIZE = 10_000;
+
+    private static final String INSERT_SQL = "INSERT INTO post_change_log (post_id, change_type) VALUES (?, ?)";
+
+    private static final String READ_SQL =
+        "SELECT id, post_id, change_type, changed_at < NOW() - INTERVAL " + SETTLE_SECONDS + " SECOND AS settled " +
+        "FROM post_change_log WHERE id > ? ORDER BY id LIMIT ?";
+
+    // Changes after a cursor, collapsed per post: a post created and then
+    // reacted to is only "created", a post deleted is only "deleted"
+    public record ChangeSet(
+        List<Long> created,
+        List<Long> deleted,
+        List<Long> changed,
+        long cursor,
+        boolean hasMore
+    ) {}
+
+    private record Row(long id, Long postId, ChangeType type, boolean settled) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate appendTransaction;
+    private final int maxRows;
+    private final Duration retention;
+
+    public PostChangeLog(JdbcTemplate jdbcTemplate,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${delta.max-rows:1000}") int maxRows,
+                         @Value("${delta.retention-hours:24}") long retentionHours) {
+        this.jdbcTemplate = jdbcTemplate;
+        // afterCommit still runs on the finished transaction's connection,
+        // so the insert needs a new one to actually commit
+        this.appendTransaction = new TransactionTemplate(transactionManager);
+        appendTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.maxRows = maxRows;
+        this.retention = Duration.ofHours(retentionHours);
+    }
+
+    public void append(Long postId, ChangeType type) {
+        afterCommit(() -> jdbcTemplate.update(INSERT_SQL, postId, type.name()));
+    }
+
+    public void appendAll(Collection<Long> postIds, ChangeType type) {
+        if (postIds.isEmpty()) {
+            return;
+        }
+        List<Object[]> batch = new ArrayList<>(postIds.size());
+        for (Long postId : postIds) {
+            batch.add(new Object[] { postId, type.name() });
+        }
+        afterCommit(() -> jdbcTemplate.batchUpdate(INSERT_SQL, batch));
+    }
+
+    // Runs the insert once the caller's transaction commits (right away
+    // without one). A failure then can no longer undo the change, so it is
+    // only logged; clients miss that change until their next full reload.
+    private void afterCommit(Runnable insert) {
+        Runnable write = () -> {
+            try {
+                appendTransaction.executeWithoutResult(status -> insert.run());
+            } catch (Exception e) {
+                System.err.println("[PostChangeLog] Append failed: " + e.getMessage());
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    write.run();
+                }
+            });
+        } else {
+            write.run();
+        }
+    }
+
+    // Where a client that has just loaded the full feed should start polling
+    // from; never below the low-water mark, even when the log is empty
+    public long latestCursor() {
+        Long latest = jdbcTemplate.queryForObject(
+            "SELECT GREATEST(COALESCE((SELECT MAX(id) FROM post_change_log), 0), pruned_through) " +
+            "FROM post_change_log_state WHERE id = 1", Long.class);
+        return latest == null ? 0 : latest;
+    }
+
+    // True when rows after the cursor have already been pruned; the client
+    // has to reload the feed instead
+    public boolean isExpired(long cursor) {
+        return cursor < prunedThrough();
+    }
+
+    private long prunedThrough() {
+        Long mark = jdbcTemplate.queryForObject(
+            "SELECT pruned_through FROM post_change_log_state WHERE id = 1", Long.class);
+        return mark == null ? 0 : mark;
+    }
+
+    public ChangeSet since(long cursor) {
+        List<Row> rows = jdbcTemplate.query(READ_SQL,
+            (rs, rowNum) -> new Row(rs.getLong("id"), rs.getLong("post_id"),
+                ChangeType.valueOf(rs.getString("change_type")), rs.getBoolean("settled")),
+            cursor, maxRows);
+
+        Map<Long, ChangeType> latest = new LinkedHashMap<>();
+        long next = cursor;
+        boolean complete = true;
+        for (Row row : rows) {
+            if (!row.settled()) {
+                complete = false;
+                break;
+            }
+            next = row.id();
+            ChangeType previous = latest.get(row.postId());
+            if (row.type() == ChangeType.CREATED || row.type() == ChangeType.DELETED || previous == null) {
+                latest.put(row.postId(), row.type());
+            }
+        }
+
+        List<Long> created = new ArrayList<>();
+        List<Long> deleted = new ArrayList<>();
+        List<Long> changed = new ArrayList<>();
+        latest.forEach((postId, type) -> {
+            switch (type) {
+                case CREATED -> created.add(postId);
+                case DELETED -> deleted.add(postId);
+                default -> changed.add(postId);
+            }
+        });
+        // Newest first, like the feed
+        Collections.reverse(created);
+        return new ChangeSet(created, deleted, changed, next, complete && rows.size() == maxRows);
+    }
+
+    // The low-water mark is raised before any row goes, so a poll running
+    // alongside is told to reload rather than handed a gap
+    @Scheduled(fixedDelayString = "${delta.prune-interval-ms:600000}", initialDelayString = "${delta.prune-interval-ms:600000}")
+    public void prune() {
+        try {
+            Timestamp cutoff = Timestamp.from(Instant.now().minus(retention));
+            Long through = jdbcTemplate.queryForObject(
+                "SELECT MAX(id) FROM post_change_log WHERE changed_at < ?", Long.class, cutoff);
+            if (through == null) {
+                return;
+            }
+            jdbcTemplate.update(
+                "UPDATE post_change_log_state SET pruned_through = GREATEST(pruned_through, ?) WHERE id = 1", through);
+            int total = 0;
+            int deleted;
+            do {
+                deleted = jdbcTemplate.update(
+                    "DELETE FROM post_change_log WHERE id <= ? LIMIT " + PRUNE_BATCH_SIZE, through);
+                total += deleted;
+            } while (deleted == PRUNE_BATCH_SIZE);
+            if (total > 0) {
+                System.out.println("[PostChangeLog] Pruned " + total + " change log rows");
+            }
+        } catch (Exception e) {
+            System.err.println("[PostChangeLog] Prune failed: " + e.getMessage());
+        }
+    }
+}
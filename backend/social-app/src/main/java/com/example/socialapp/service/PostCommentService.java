@@ -1,16 +1,27 @@
 
 package com.example.socialapp.service;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.example.socialapp.model.Post;
 import com.example.socialapp.model.PostComment;
 import com.example.socialapp.model.User;
+import com.example.socialapp.repository.CommentRow;
+import com.example.socialapp.repository.CommentsVersion;
 import com.example.socialapp.repository.PostCommentRepository;
 import com.example.socialapp.repository.PostRepository;
 import com.example.socialapp.repository.UserRepository;
@@ -20,19 +31,42 @@ import com.example.socialapp.repository.NotificationRepository;
 @Service
 public class PostCommentService {
 
+    // Deeper replies are attached to the comment at this depth
+    static final int MAX_DEPTH = 8;
+    // Ids are zero-padded so paths sort like the id chains they encode
+    private static final int PATH_DIGITS = 19;
+
+    // The first replies of each thread on a page: per root, a LIMIT in path
+    // order that stops after that many rows of idx_post_comments_thread,
+    // rather than numbering every reply of the thread first (MySQL 8.0.14+)
+    private static final String FIRST_REPLIES_SQL_PREFIX =
+        "SELECT r.* FROM post_comments root CROSS JOIN LATERAL (" +
+        "SELECT c.id, c.post_id, c.user_id, u.username, u.profile_picture_url, c.comment_text, " +
+        "c.created_at, c.updated_at, c.parent_id, c.root_id, c.path, c.depth, c.reply_count " +
+        "FROM post_comments c JOIN users u ON u.id = c.user_id " +
+        "WHERE c.root_id = root.id AND c.depth > 0 ORDER BY c.path LIMIT ?) r " +
+        "WHERE root.id IN (";
+    private static final String FIRST_REPLIES_SQL_SUFFIX = ") ORDER BY r.root_id, r.path";
+
     private final PostCommentRepository postCommentRepository;
     private final PostRepository postRepository;
     private final UserRepository userRepository;
     private final NotificationRepository notificationRepository;
+    private final PostCounterService postCounterService;
+    private final JdbcTemplate jdbcTemplate;
 
     public PostCommentService(PostCommentRepository postCommentRepository,
                              PostRepository postRepository,
                              UserRepository userRepository,
-                             NotificationRepository notificationRepository) {
+                             NotificationRepository notificationRepository,
+                             PostCounterService postCounterService,
+                             JdbcTemplate jdbcTemplate) {
         this.postCommentRepository = postCommentRepository;
         this.postRepository = postRepository;
         this.userRepository = userRepository;
         this.notificationRepository = notificationRepository;
+        this.postCounterService = postCounterService;
+        this.jdbcTemplate = jdbcTemplate;
     }
 
     public record CommentResponse(
@@ -43,18 +77,48 @@ public class PostCommentService {
         String userProfilePicture,
         String commentText,
         Instant createdAt,
-        Instant updatedAt
+        Instant updatedAt,
+        Long parentId,
+        int depth,
+        int replyCount
     ) {}
 
+    // parentId is null for a top-level comment. Replies below MAX_DEPTH are
+    // attached to the deepest allowed ancestor instead. A parent that does
+    // not exist or belongs to another post is an IllegalArgumentException.
     @Transactional
-    public CommentResponse createComment(Long postId, Long userId, String commentText) {
+    public CommentResponse createComment(Long postId, Long userId, String commentText, Long parentId) {
         Post post = postRepository.findById(postId)
                 .orElseThrow(() -> new RuntimeException("Post not found"));
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
+        PostComment parent = null;
+        if (parentId != null) {
+            parent = postCommentRepository.findById(parentId)
+                    .filter(c -> c.getPost().getId().equals(postId))
+                    .orElseThrow(() -> new IllegalArgumentException("Parent comment not found"));
+            if (parent.getDepth() >= MAX_DEPTH) {
+                parent = postCommentRepository.findById(parent.getParentId())
+                        .orElseThrow(() -> new IllegalArgumentException("Parent comment not found"));
+            }
+        }
+
         PostComment comment = new PostComment(post, user, commentText);
-        comment = postCommentRepository.save(comment);
+        comment = postCommentRepository.saveAndFlush(comment);
+
+        // The path needs the new id, so it is set right after the insert
+        if (parent == null) {
+            comment.setRootId(comment.getId());
+            comment.setPath(segment(comment.getId()));
+        } else {
+            comment.setParentId(parent.getId());
+            comment.setRootId(parent.getRootId());
+            comment.setDepth(parent.getDepth() + 1);
+            comment.setPath(parent.getPath() + segment(comment.getId()));
+            postCommentRepository.addToReplyCounts(pathIds(parent.getPath()), 1);
+        }
+        postCounterService.adjust(postId, 0, 0, 1);
 
         // Create notification for post owner (if not commenting on own post)
         if (!post.getUser().getId().equals(userId)) {
@@ -74,15 +138,87 @@ public class PostCommentService {
         return mapToResponse(comment);
     }
 
-    public List<CommentResponse> getCommentsByPostId(Long postId) {
-        List<PostComment> comments = postCommentRepository.findByPostIdOrderByCreatedAtDesc(postId);
-        return comments.stream()
-                .map(this::mapToResponse)
+    public record CommentPage(List<CommentResponse> comments, FeedCursor nextCursor) {}
+
+    // One page of a post's top-level comments, newest first, after the cursor
+    // if given; replies are reached through replyCount and getRepliesPage
+    public CommentPage getCommentsPage(Long postId, FeedCursor after, int limit) {
+        List<CommentRow> rows = after == null
+                ? postCommentRepository.findTopLevelPage(postId, Limit.of(limit))
+                : postCommentRepository.findTopLevelPageAfter(postId, after.createdAt(), after.id(), Limit.of(limit));
+        return new CommentPage(toResponses(rows), nextCursor(rows, limit));
+    }
+
+    public record CommentThread(CommentResponse comment, List<CommentResponse> replies) {}
+
+    public record ThreadPage(List<CommentThread> threads, FeedCursor nextCursor) {}
+
+    // A page of top-level comments, newest first, each with the first
+    // repliesPerThread comments of its thread in reading order. Two queries
+    // however many threads are on the page.
+    public ThreadPage getThreadsPage(Long postId, FeedCursor after, int limit, int repliesPerThread) {
+        List<CommentRow> roots = after == null
+                ? postCommentRepository.findTopLevelPage(postId, Limit.of(limit))
+                : postCommentRepository.findTopLevelPageAfter(postId, after.createdAt(), after.id(), Limit.of(limit));
+
+        Map<Long, List<CommentResponse>> repliesByRoot = new HashMap<>();
+        List<Long> rootIds = roots.stream()
+                .filter(root -> root.replyCount() > 0)
+                .map(CommentRow::id)
                 .collect(Collectors.toList());
+        if (!rootIds.isEmpty() && repliesPerThread > 0) {
+            String placeholders = String.join(", ", Collections.nCopies(rootIds.size(), "?"));
+            List<Object> args = new ArrayList<>(rootIds.size() + 1);
+            args.add(repliesPerThread);
+            args.addAll(rootIds);
+            jdbcTemplate.query(FIRST_REPLIES_SQL_PREFIX + placeholders + FIRST_REPLIES_SQL_SUFFIX,
+                rs -> {
+                    CommentRow row = new CommentRow(rs.getLong("id"), rs.getLong("post_id"), rs.getLong("user_id"),
+                        rs.getString("username"), rs.getString("profile_picture_url"), rs.getString("comment_text"),
+                        rs.getTimestamp("created_at").toInstant(),
+                        rs.getTimestamp("updated_at") == null ? null : rs.getTimestamp("updated_at").toInstant(),
+                        rs.getLong("parent_id"), rs.getInt("depth"), rs.getInt("reply_count"), rs.getString("path"));
+                    repliesByRoot.computeIfAbsent(rs.getLong("root_id"), id -> new ArrayList<>()).add(toResponse(row));
+                },
+                args.toArray());
+        }
+
+        List<CommentThread> threads = new ArrayList<>(roots.size());
+        for (CommentRow root : roots) {
+            threads.add(new CommentThread(toResponse(root), repliesByRoot.getOrDefault(root.id(), List.of())));
+        }
+        return new ThreadPage(threads, nextCursor(roots, limit));
+    }
+
+    public record ReplyPage(List<CommentResponse> replies, String nextCursor) {}
+
+    // Everything below a comment in reading order (depth-first, oldest
+    // first), one range scan per page. The cursor is opaque to clients.
+    public ReplyPage getRepliesPage(Long commentId, String cursor, int limit) {
+        PostComment comment = postCommentRepository.findById(commentId)
+                .orElseThrow(() -> new RuntimeException("Comment not found"));
+        String afterPath = cursor == null || cursor.isBlank() ? comment.getPath() : decodePath(cursor);
+        if (!afterPath.startsWith(comment.getPath())) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+
+        List<CommentRow> rows = postCommentRepository.findSubtreePage(comment.getRootId(),
+            comment.getPath() + "%", afterPath, Limit.of(limit));
+        String next = null;
+        if (rows.size() == limit) {
+            next = Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(rows.get(rows.size() - 1).path().getBytes(StandardCharsets.US_ASCII));
+        }
+        return new ReplyPage(toResponses(rows), next);
+    }
+
+    // Count and latest change of the comments, for conditional GETs
+    public CommentsVersion getCommentsVersion(Long postId) {
+        return postCommentRepository.findVersionByPostId(postId);
     }
 
     public long getCommentCount(Long postId) {
-        return postCommentRepository.countByPostId(postId);
+        return postCounterService.getCounters(postId).commentCount();
     }
 
     @Transactional
@@ -104,7 +240,37 @@ public class PostCommentService {
 
         System.out.println("[PostCommentService] Delete authorized - isOwner: " + isOwner + ", isAdmin: " + isAdmin);
 
+        // Replies go with it (ON DELETE CASCADE on parent_id)
+        int removed = 1 + comment.getReplyCount();
+        List<Long> ancestorIds = pathIds(comment.getPath());
+        ancestorIds.remove(comment.getId());
         postCommentRepository.delete(comment);
+        if (!ancestorIds.isEmpty()) {
+            postCommentRepository.addToReplyCounts(ancestorIds, -removed);
+        }
+        postCounterService.adjust(comment.getPost().getId(), 0, 0, -removed);
+    }
+
+    // Ahead of deleting a user: their comments on other users' posts cascade
+    // away with every reply below them, so those go out of the ancestors'
+    // reply counts and the posts' comment counts here. A comment below
+    // another of theirs is already counted in that one's subtree.
+    @Transactional
+    public void releaseUser(Long userId) {
+        List<PostComment> comments = postCommentRepository.findOnOthersPosts(userId);
+        Set<Long> ids = comments.stream().map(PostComment::getId).collect(Collectors.toSet());
+        for (PostComment comment : comments) {
+            List<Long> ancestorIds = pathIds(comment.getPath());
+            ancestorIds.remove(comment.getId());
+            if (ancestorIds.stream().anyMatch(ids::contains)) {
+                continue;
+            }
+            int removed = 1 + comment.getReplyCount();
+            if (!ancestorIds.isEmpty()) {
+                postCommentRepository.addToReplyCounts(ancestorIds, -removed);
+            }
+            postCounterService.adjust(comment.getPost().getId(), 0, 0, -removed);
+        }
     }
 
     private CommentResponse mapToResponse(PostComment comment) {
@@ -116,7 +282,54 @@ public class PostCommentService {
             comment.getUser().getProfilePictureUrl(),
             comment.getCommentText(),
             comment.getCreatedAt(),
-            comment.getUpdatedAt()
+            comment.getUpdatedAt(),
+            comment.getParentId(),
+            comment.getDepth(),
+            comment.getReplyCount()
         );
     }
+
+    private static CommentResponse toResponse(CommentRow row) {
+        return new CommentResponse(row.id(), row.postId(), row.userId(), row.username(),
+            row.userProfilePicture(), row.commentText(), row.createdAt(), row.updatedAt(),
+            row.parentId(), row.depth(), row.replyCount());
+    }
+
+    private static List<CommentResponse> toResponses(List<CommentRow> rows) {
+        return rows.stream().map(PostCommentService::toResponse).collect(Collectors.toList());
+    }
+
+    // A full page may have more rows behind it; a short page is the last one
+    private static FeedCursor nextCursor(List<CommentRow> rows, int limit) {
+        if (rows.size() < limit) {
+            return null;
+        }
+        CommentRow last = rows.get(rows.size() - 1);
+        return FeedCursor.of(last.createdAt(), last.id());
+    }
+
+    // ==== Materialized paths ====
+
+    static String segment(Long id) {
+        return String.format("%0" + PATH_DIGITS + "d/", id);
+    }
+
+    // Ids along a path, top-level comment first
+    static List<Long> pathIds(String path) {
+        List<Long> ids = new ArrayList<>();
+        for (int from = 0; from + PATH_DIGITS < path.length(); from += PATH_DIGITS + 1) {
+            ids.add(Long.parseLong(path.substring(from, from + PATH_DIGITS)));
+        }
+        return ids;
+    }
+
+    private static String decodePath(String cursor) {
+        try {
+            String path = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            pathIds(path);
+            return path;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
 }
@@ -0,0 +1,79 @@
+package com.example.socialapp.service;
+
+import java.util.Optional;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.socialapp.repository.PostCounters;
+import com.example.socialapp.repository.PostRepository;
+
+// Single entry point for the denormalized like/dislike/comment counters on posts
+@Service
+public class PostCounterService {
+
+    private final PostRepository postRepository;
+    private final EngagementCounterBuffer counterBuffer;
+    private final PostViewCache postViewCache;
+    private final HotRankingService hotRankingService;
+    private final PostChangeLog postChangeLog;
+
+    public PostCounterService(PostRepository postRepository, EngagementCounterBuffer counterBuffer,
+                              PostViewCache postViewCache, HotRankingService hotRankingService,
+                              PostChangeLog postChangeLog) {
+        this.postRepository = postRepository;
+        this.counterBuffer = counterBuffer;
+        this.postViewCache = postViewCache;
+        this.hotRankingService = hotRankingService;
+        this.postChangeLog = postChangeLog;
+    }
+
+    // With write-behind enabled the delta goes to the in-memory buffer when
+    // the transaction commits and is flushed in a batch shortly after;
+    // otherwise it is applied right away in the caller's transaction. The
+    // change log entry follows the same path: written after the buffer's
+    // flush, or once the caller's transaction commits. The hot score moves
+    // only after commit too, so a rolled-back reaction never reaches hot_score.
+    @Transactional
+    public void adjust(Long postId, long likeDelta, long dislikeDelta, long commentDelta) {
+        if (likeDelta == 0 && dislikeDelta == 0 && commentDelta == 0) {
+            return;
+        }
+        if (counterBuffer.isEnabled()) {
+            counterBuffer.add(postId, likeDelta, dislikeDelta, commentDelta);
+        } else {
+            postRepository.adjustCounters(postId, likeDelta, dislikeDelta, commentDelta);
+            postChangeLog.append(postId, PostChangeLog.ChangeType.COUNTERS);
+        }
+        // Every reaction and comment goes through here, so this is where cached counts go stale
+        postViewCache.invalidate(postId);
+        afterCommit(() -> hotRankingService.onCountersChanged(postId, likeDelta, dislikeDelta, commentDelta));
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public PostCounters getCounters(Long postId) {
+        return findCounters(postId).orElse(PostCounters.ZERO);
+    }
+
+    // Empty when the post does not exist
+    @Transactional(readOnly = true)
+    public Optional<PostCounters> findCounters(Long postId) {
+        return counterBuffer.read(() -> postRepository.findCountersById(postId)
+                .map(persisted -> counterBuffer.withOwnDeltas(postId, counterBuffer.withPending(postId, persisted))));
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.socialapp.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.socialapp.model.Notification;
+import com.example.socialapp.model.PostReaction.Kind;
+import com.example.socialapp.repository.PostCounters;
+import com.example.socialapp.repository.PostReactionRepository;
+import com.example.socialapp.repository.PostRepository;
+import com.example.socialapp.repository.UserFollowRepository;
+import com.example.socialapp.repository.UserRepository;
+import com.example.socialapp.repository.ViewerReaction;
+
+// All like/dislike writes, on the single post_reactions row per user and
+// post. Each change is one or two statements by ids (flip, insert or
+// delete) and the affected-row counts are the counter deltas, so no post,
+// user or reaction entity is loaded. PostLikeService and PostDislikeService
+// delegate their toggles here.
+@Service
+public class PostReactionService {
+
+    public enum Reaction { LIKE, DISLIKE, NONE }
+
+    public record ReactionResult(Reaction reaction, long likeCount, long dislikeCount) {}
+
+    // Counter deltas of one change
+    private record Delta(int likes, int dislikes) {}
+
+    private final PostReactionRepository postReactionRepository;
+    private final PostRepository postRepository;
+    private final UserRepository userRepository;
+    private final PostCounterService postCounterService;
+    private final NotificationService notificationService;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ViewerReactionCache viewerReactionCache;
+    private final ReactorBitmaps reactorBitmaps;
+    private final UserFollowRepository userFollowRepository;
+
+    public PostReactionService(PostReactionRepository postReactionRepository,
+                               PostRepository postRepository,
+                               UserRepository userRepository,
+                               PostCounterService postCounterService,
+                               NotificationService notificationService,
+                               SimpMessagingTemplate messagingTemplate,
+                               ViewerReactionCache viewerReactionCache,
+                               ReactorBitmaps reactorBitmaps,
+                               UserFollowRepository userFollowRepository) {
+        this.postReactionRepository = postReactionRepository;
+        this.postRepository = postRepository;
+        this.userRepository = userRepository;
+        this.postCounterService = postCounterService;
+        this.notificationService = notificationService;
+        this.messagingTemplate = messagingTemplate;
+        this.viewerReactionCache = viewerReactionCache;
+        this.reactorBitmaps = reactorBitmaps;
+        this.userFollowRepository = userFollowRepository;
+    }
+
+    // Sets the reaction to a target state and reads the counts back in the
+    // same transaction. Repeating a call changes nothing, so client retries
+    // are safe. Empty when the post does not exist; throws "User not found"
+    // for an unknown user, which INSERT IGNORE would otherwise swallow.
+    @Transactional
+    public Optional<ReactionResult> setReaction(Long postId, Long userId, Reaction reaction) {
+        if (!userRepository.existsById(userId)) {
+            throw new RuntimeException("User not found");
+        }
+        Delta delta = switch (reaction) {
+            case LIKE -> react(postId, userId, Kind.LIKE);
+            case DISLIKE -> react(postId, userId, Kind.DISLIKE);
+            case NONE -> clear(postId, userId);
+        };
+        postCounterService.adjust(postId, delta.likes(), delta.dislikes(), 0);
+
+        // INSERT IGNORE also skips a missing post, so a post that does not
+        // exist shows up here as missing counters
+        Optional<PostCounters> counters = postCounterService.findCounters(postId);
+        if (counters.isEmpty()) {
+            return Optional.empty();
+        }
+        // Only once the post is known to exist, so a 404 leaves no cache entries
+        remember(postId, userId, switch (reaction) {
+            case LIKE -> Kind.LIKE;
+            case DISLIKE -> Kind.DISLIKE;
+            case NONE -> null;
+        });
+
+        // Only a like that was actually added notifies the owner
+        if (delta.likes() > 0) {
+            postRepository.findAuthorId(postId)
+                    .ifPresent(ownerId -> notifyLike(ownerId, userId, postId));
+        }
+        return Optional.of(new ReactionResult(reaction, counters.get().likeCount(), counters.get().dislikeCount()));
+    }
+
+    // Removes the reaction if it is of this kind, otherwise sets it
+    @Transactional
+    public void toggle(Long postId, Long userId, Kind kind) {
+        Long ownerId = postRepository.findAuthorId(postId)
+                .orElseThrow(() -> new RuntimeException("Post not found"));
+        if (!userRepository.existsById(userId)) {
+            throw new RuntimeException("User not found");
+        }
+
+        Delta delta;
+        if (postReactionRepository.deleteKind(postId, userId, kind) > 0) {
+            delta = kind == Kind.LIKE ? new Delta(-1, 0) : new Delta(0, -1);
+            remember(postId, userId, null);
+        } else {
+            delta = react(postId, userId, kind);
+            remember(postId, userId, kind);
+        }
+        postCounterService.adjust(postId, delta.likes(), delta.dislikes(), 0);
+
+        if (delta.likes() > 0) {
+            notifyLike(ownerId, userId, postId);
+        }
+    }
+
+    // Takes a user's reactions out of the counters of other users' posts,
+    // ahead of deleting the user, which cascades the rows away unseen. Their
+    // own posts go with them.
+    @Transactional
+    public void releaseUser(Long userId) {
+        for (ViewerReaction reaction : postReactionRepository.findOnOthersPosts(userId)) {
+            boolean like = reaction.kind() == Kind.LIKE;
+            postCounterService.adjust(reaction.postId(), like ? -1 : 0, like ? 0 : -1, 0);
+        }
+    }
+
+    public boolean hasReacted(Long postId, Long userId, Kind kind) {
+        Set<Long> liked = new HashSet<>();
+        Set<Long> disliked = new HashSet<>();
+        if (!reactorBitmaps.lookup(userId, List.of(postId), liked, disliked).isEmpty()) {
+            viewerReactionCache.lookup(userId, List.of(postId), liked, disliked);
+        }
+        return (kind == Kind.LIKE ? liked : disliked).contains(postId);
+    }
+
+    // Users the viewer follows who liked the post: an intersection with the
+    // post's likers bitmap when it has one, otherwise a semi-join on
+    // post_reactions. Ids ascending.
+    @Transactional(readOnly = true)
+    public List<Long> findLikersFollowedBy(Long postId, Long userId) {
+        List<Long> followedIds = userFollowRepository.findFollowedIdsOf(userId);
+        RoaringBitmap followed = new RoaringBitmap();
+        boolean representable = true;
+        for (Long followedId : followedIds) {
+            if (!ReactorBitmaps.fits(followedId)) {
+                representable = false;
+                break;
+            }
+            followed.add(followedId.intValue());
+        }
+        if (representable) {
+            Optional<RoaringBitmap> likers = reactorBitmaps.likersAmong(postId, followed);
+            if (likers.isPresent()) {
+                List<Long> ids = new ArrayList<>(likers.get().getCardinality());
+                likers.get().forEach((int id) -> ids.add((long) id));
+                return ids;
+            }
+        }
+        return postReactionRepository.findReactorsFollowedBy(postId, Kind.LIKE, userId);
+    }
+
+    // Flip the opposite reaction in place, or insert a new one
+    private Delta react(Long postId, Long userId, Kind kind) {
+        Kind opposite = kind == Kind.LIKE ? Kind.DISLIKE : Kind.LIKE;
+        int flipped = postReactionRepository.updateKind(postId, userId, opposite, kind, Instant.now());
+        int added = flipped > 0 ? 0 : postReactionRepository.insertIgnore(postId, userId, kind.name());
+        int gained = flipped + added;
+        return kind == Kind.LIKE ? new Delta(gained, -flipped) : new Delta(-flipped, gained);
+    }
+
+    private Delta clear(Long postId, Long userId) {
+        if (postReactionRepository.deleteKind(postId, userId, Kind.LIKE) > 0) {
+            return new Delta(-1, 0);
+        }
+        return new Delta(0, -postReactionRepository.deleteKind(postId, userId, Kind.DISLIKE));
+    }
+
+    // Keep the viewer's cached sets and the post's bitmaps in step
+    private void remember(Long postId, Long userId, Kind kind) {
+        viewerReactionCache.update(userId, postId, kind);
+        reactorBitmaps.update(postId, userId, kind);
+    }
+
+    // Notify the post owner of a new like, unless they liked their own post
+    private void notifyLike(Long postOwnerId, Long userId, Long postId) {
+        if (postOwnerId.equals(userId)) {
+            return;
+        }
+        Notification notification = notificationService.createLikeNotification(postOwnerId, userId, postId);
+
+        // Send real-time notification via WebSocket; null while the post's
+        // aggregated like notification is inside its push window
+        if (notification != null) {
+            messagingTemplate.convertAndSend("/topic/notifications/" + postOwnerId, notification);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.socialapp.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.socialapp.model.Post;
+import com.example.socialapp.repository.PostCounters;
+import com.example.socialapp.repository.PostRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+// Bounded in-process cache of the viewer-independent part of a feed post:
+// author, content, image and counts. Per-viewer like/dislike flags are
+// overlaid by FeedHydrationService. Entries are dropped on every edit,
+// delete, reaction and comment, all of an author's entries on a profile
+// change (the feed ETag covers the author's updated_at), and expire after
+// post-cache.ttl-seconds in any case.
+@Service
+public class PostViewCache {
+
+    private final PostRepository postRepository;
+    private final EngagementCounterBuffer counterBuffer;
+    private final Cache<Long, PostView> cache;
+
+    public PostViewCache(PostRepository postRepository,
+                         EngagementCounterBuffer counterBuffer,
+                         MeterRegistry meterRegistry,
+                         @Value("${post-cache.max-size:10000}") long maxSize,
+                         @Value("${post-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.postRepository = postRepository;
+        this.counterBuffer = counterBuffer;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        // cache.gets{result=hit|miss}, cache.evictions, cache.size tagged cache=posts
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "posts");
+    }
+
+    public record PostView(
+        Long id,
+        Long userId,
+        String username,
+        String userProfilePicture,
+        String content,
+        String imageUrl,
+        Instant createdAt,
+        Instant updatedAt,
+        long likeCount,
+        long dislikeCount,
+        long commentCount
+    ) {}
+
+    // Views for the given ids; misses are loaded together in one query.
+    // Ids of posts that no longer exist are absent from the result.
+    public Map<Long, PostView> getAll(Collection<Long> postIds) {
+        return cache.getAll(postIds, this::load);
+    }
+
+    // Drop a post's view once the surrounding transaction commits; dropping
+    // it earlier would let a concurrent reader re-cache the old row
+    public void invalidate(Long postId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(postId);
+                }
+            });
+        } else {
+            cache.invalidate(postId);
+        }
+    }
+
+    // Drop every cached view of the author's posts once the surrounding
+    // transaction commits, so a profile change is not served under the
+    // ETag that already reflects it. A scan, but profile edits are rare.
+    public void invalidateAuthor(Long userId) {
+        Runnable invalidate = () -> cache.asMap().values().removeIf(view -> view.userId().equals(userId));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate.run();
+                }
+            });
+        } else {
+            invalidate.run();
+        }
+    }
+
+    // Snapshot of a loaded post with its author, counters including unflushed
+    // deltas. Exact when the post was read inside counterBuffer.read().
+    static PostView toView(Post post, EngagementCounterBuffer counterBuffer) {
+        PostCounters counters = counterBuffer.withPending(post.getId(),
+            new PostCounters(post.getLikeCount(), post.getDislikeCount(), post.getCommentCount()));
+        return new PostView(
+            post.getId(),
+            post.getUser().getId(),
+            post.getUser().getUsername(),
+            post.getUser().getProfilePictureUrl(),
+            post.getContent(),
+            post.getImageUrl(),
+            post.getCreatedAt(),
+            post.getUpdatedAt(),
+            counters.likeCount(),
+            counters.dislikeCount(),
+            counters.commentCount()
+        );
+    }
+
+    private Map<Long, PostView> load(Set<? extends Long> postIds) {
+        return counterBuffer.read(() -> {
+            Map<Long, PostView> views = new HashMap<>();
+            for (Post post : postRepository.findWithUserByIdIn(List.copyOf(postIds))) {
+                views.put(post.getId(), toView(post, counterBuffer));
+            }
+            return views;
+        });
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.socialapp.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.socialapp.model.PostReaction;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+
+// Compressed likers/dislikers sets (Roaring bitmaps over user ids) for posts
+// with many reactions, so "did X react", "how many reacted" and "which of my
+// followees liked this" are answered from memory. A post gets its bitmaps
+// once hydration sees it at reactor-bitmaps.threshold reactions or more; they
+// are built in the background with one scan of the post's post_reactions
+// rows and kept current by PostReactionService after each commit. Until a
+// build finishes, and for posts without bitmaps, callers use their usual
+// path. At most reactor-bitmaps.max-posts posts are held, least recently
+// used dropped first.
+@Component
+public class ReactorBitmaps {
+
+    private record Change(int userId, PostReaction.Kind kind) {}
+
+    // Guarded by its own lock. Changes arriving while the snapshot is read
+    // are queued and replayed on top of it, so none is lost or undone.
+    private static final class Reactors {
+        final RoaringBitmap likers = new RoaringBitmap();
+        final RoaringBitmap dislikers = new RoaringBitmap();
+        List<Change> pending = new ArrayList<>();
+        boolean ready;
+
+        void apply(int userId, PostReaction.Kind kind) {
+            likers.remove(userId);
+            dislikers.remove(userId);
+            if (kind == PostReaction.Kind.LIKE) {
+                likers.add(userId);
+            } else if (kind == PostReaction.Kind.DISLIKE) {
+                dislikers.add(userId);
+            }
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long threshold;
+    private final Cache<Long, Reactors> cache;
+    private final ExecutorService builder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "reactor-bitmaps");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ReactorBitmaps(JdbcTemplate jdbcTemplate,
+                          MeterRegistry meterRegistry,
+                          @Value("${reactor-bitmaps.threshold:1000}") long threshold,
+                          @Value("${reactor-bitmaps.max-posts:2000}") long maxPosts,
+                          @Value("${reactor-bitmaps.idle-minutes:60}") long idleMinutes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.threshold = threshold;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxPosts)
+                .expireAfterAccess(Duration.ofMinutes(idleMinutes))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "reactor-bitmaps");
+    }
+
+    // Start a build for a post that has reached the threshold
+    public void touch(Long postId, long reactionCount) {
+        if (reactionCount < threshold || cache.getIfPresent(postId) != null) {
+            return;
+        }
+        Reactors reactors = new Reactors();
+        if (cache.asMap().putIfAbsent(postId, reactors) == null) {
+            builder.execute(() -> build(postId, reactors));
+        }
+    }
+
+    private void build(Long postId, Reactors reactors) {
+        RoaringBitmap likers = new RoaringBitmap();
+        RoaringBitmap dislikers = new RoaringBitmap();
+        try {
+            jdbcTemplate.query("SELECT user_id, kind FROM post_reactions WHERE post_id = ?",
+                rs -> {
+                    long userId = rs.getLong("user_id");
+                    if (fits(userId)) {
+                        (PostReaction.Kind.LIKE.name().equals(rs.getString("kind")) ? likers : dislikers)
+                            .add((int) userId);
+                    }
+                },
+                postId);
+        } catch (Exception e) {
+            System.err.println("[ReactorBitmaps] Could not build reactors of post " + postId + ": " + e.getMessage());
+            cache.asMap().remove(postId, reactors);
+            return;
+        }
+
+        synchronized (reactors) {
+            reactors.likers.or(likers);
+            reactors.dislikers.or(dislikers);
+            for (Change change : reactors.pending) {
+                reactors.apply(change.userId(), change.kind());
+            }
+            reactors.pending = null;
+            reactors.likers.runOptimize();
+            reactors.dislikers.runOptimize();
+            reactors.ready = true;
+        }
+    }
+
+    // Record a user's new reaction to a post (null for none) once the
+    // surrounding transaction commits
+    public void update(Long postId, Long userId, PostReaction.Kind kind) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(postId, userId, kind);
+                }
+            });
+        } else {
+            apply(postId, userId, kind);
+        }
+    }
+
+    private void apply(Long postId, Long userId, PostReaction.Kind kind) {
+        Reactors reactors = cache.getIfPresent(postId);
+        if (reactors == null) {
+            return;
+        }
+        if (!fits(userId)) {
+            // Not representable; stop answering for this post
+            cache.asMap().remove(postId, reactors);
+            return;
+        }
+        synchronized (reactors) {
+            if (reactors.ready) {
+                reactors.apply(userId.intValue(), kind);
+            } else {
+                reactors.pending.add(new Change(userId.intValue(), kind));
+            }
+        }
+    }
+
+    // Drop a deleted user from every post's bitmaps; deleting the user
+    // cascades their post_reactions rows, which update() never hears about
+    public void removeUser(Long userId) {
+        if (!fits(userId)) {
+            return;
+        }
+        for (Long postId : cache.asMap().keySet()) {
+            apply(postId, userId, null);
+        }
+    }
+
+    // Fills the viewer's flags for the posts that have ready bitmaps and
+    // returns the posts left for the caller to resolve
+    public List<Long> lookup(Long viewerId, Collection<Long> postIds, Set<Long> liked, Set<Long> disliked) {
+        List<Long> rest = new ArrayList<>();
+        for (Long postId : postIds) {
+            Reactors reactors = cache.getIfPresent(postId);
+            if (reactors == null || !fits(viewerId)) {
+                rest.add(postId);
+                continue;
+            }
+            synchronized (reactors) {
+                if (!reactors.ready) {
+                    rest.add(postId);
+                } else if (reactors.likers.contains(viewerId.intValue())) {
+                    liked.add(postId);
+                } else if (reactors.dislikers.contains(viewerId.intValue())) {
+                    disliked.add(postId);
+                }
+            }
+        }
+        return rest;
+    }
+
+    // Likers of the post among the given users, or empty if the post has no
+    // ready bitmaps
+    public Optional<RoaringBitmap> likersAmong(Long postId, RoaringBitmap userIds) {
+        Reactors reactors = cache.getIfPresent(postId);
+        if (reactors == null) {
+            return Optional.empty();
+        }
+        synchronized (reactors) {
+            return reactors.ready
+                    ? Optional.of(RoaringBitmap.and(reactors.likers, userIds))
+                    : Optional.empty();
+        }
+    }
+
+    static boolean fits(long userId) {
+        return userId >= 0 && userId <= Integer.MAX_VALUE;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        builder.shutdownNow();
+    }
+}
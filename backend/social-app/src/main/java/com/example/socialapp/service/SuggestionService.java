@@ -0,0 +1,293 @@
+package com.example.socialapp.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.socialapp.repository.UserRepository;
+import com.example.socialapp.repository.UserSummary;
+
+import jakarta.annotation.PreDestroy;
+
+// "People you may know": accounts followed by the accounts a user follows,
+// ranked by how many of them follow the candidate, plus a boost for the same
+// major and the same graduation year. Computed from FollowGraph with no SQL
+// join; a periodic batch covers every active user in parallel on a
+// fork/join pool, and a user's list is recomputed on its own after they
+// follow or unfollow someone. Profiles (who is active, major, year) are
+// reloaded every suggestions.profile-refresh-ms, so new accounts become
+// candidates within that delay; a user's own profile is read directly when
+// it is not loaded yet.
+@Service
+public class SuggestionService {
+
+    // Bounds the work for users who follow very many accounts
+    private static final int MAX_FOLLOWEES_EXPANDED = 1_000;
+    private static final int MAX_CANDIDATE_EDGES = 200_000;
+    // Users per fork/join leaf task
+    private static final int BATCH_GRAIN = 256;
+
+    private static final double MAJOR_BOOST = 1.5;
+    private static final double YEAR_BOOST = 1.0;
+
+    private record Profile(String major, Integer graduationYear) {}
+
+    private record Candidate(long userId, int mutualCount, double score) {}
+
+    public record Suggestion(Long id, String username, String profilePictureUrl, int mutualCount) {}
+
+    private final FollowGraph followGraph;
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final int listSize;
+    private final ForkJoinPool pool;
+
+    // Active users only; replaced by each profile reload
+    private volatile Map<Long, Profile> profiles = Map.of();
+    private final Map<Long, List<Candidate>> cache = new ConcurrentHashMap<>();
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    public SuggestionService(FollowGraph followGraph,
+                             UserRepository userRepository,
+                             JdbcTemplate jdbcTemplate,
+                             @Value("${suggestions.list-size:20}") int listSize,
+                             @Value("${suggestions.parallelism:0}") int parallelism) {
+        this.followGraph = followGraph;
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.listSize = listSize;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    // Up to limit suggestions for the user, best first
+    public List<Suggestion> getSuggestions(Long userId, int limit) {
+        if (!followGraph.ready()) {
+            return List.of();
+        }
+        List<Candidate> candidates = cache.get(userId);
+        if (candidates == null) {
+            if (profiles.isEmpty()) {
+                profiles = loadProfiles();
+            }
+            candidates = compute(userId);
+            cache.put(userId, candidates);
+        }
+
+        // Drop anyone followed since the list was computed
+        List<Candidate> shown = new ArrayList<>(Math.min(limit, candidates.size()));
+        for (Candidate candidate : candidates) {
+            if (shown.size() == limit) {
+                break;
+            }
+            if (!followGraph.isFollowing(userId, candidate.userId())) {
+                shown.add(candidate);
+            }
+        }
+        if (shown.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, UserSummary> summaries = new HashMap<>();
+        for (UserSummary summary : userRepository.findSummariesByIdIn(shown.stream().map(Candidate::userId).toList())) {
+            summaries.put(summary.id(), summary);
+        }
+        List<Suggestion> suggestions = new ArrayList<>(shown.size());
+        for (Candidate candidate : shown) {
+            UserSummary summary = summaries.get(candidate.userId());
+            if (summary != null) {
+                suggestions.add(new Suggestion(summary.id(), summary.username(), summary.profilePictureUrl(),
+                    candidate.mutualCount()));
+            }
+        }
+        return suggestions;
+    }
+
+    // Recompute the follower's list in the background once the follow or
+    // unfollow has committed (and FollowGraph has applied it)
+    public void onFollowChanged(Long followerId) {
+        Runnable refresh = () -> pool.execute(() -> {
+            try {
+                cache.put(followerId, compute(followerId));
+            } catch (Exception e) {
+                System.err.println("[SuggestionService] Refresh for user " + followerId + " failed: " + e.getMessage());
+            }
+        });
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refresh.run();
+                }
+            });
+        } else {
+            refresh.run();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${suggestions.profile-refresh-ms:60000}", initialDelayString = "${suggestions.profile-refresh-ms:60000}")
+    public void refreshProfiles() {
+        try {
+            profiles = loadProfiles();
+        } catch (Exception e) {
+            System.err.println("[SuggestionService] Profile reload failed: " + e.getMessage());
+        }
+    }
+
+    // Hands the batch to the fork/join pool and returns, so the scheduler
+    // thread is not held for its duration; a batch still running when the
+    // next is due is not started twice
+    @Scheduled(fixedDelayString = "${suggestions.refresh-interval-ms:3600000}", initialDelayString = "${suggestions.initial-delay-ms:60000}")
+    public void refreshAll() {
+        if (!followGraph.ready() || !refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            pool.execute(this::computeAll);
+        } catch (RejectedExecutionException e) {
+            refreshing.set(false);
+        }
+    }
+
+    private void computeAll() {
+        try {
+            long started = System.nanoTime();
+            profiles = loadProfiles();
+            long[] userIds = profiles.keySet().stream().mapToLong(Long::longValue).toArray();
+            new Batch(userIds, 0, userIds.length).invoke();
+            // Users who are no longer active
+            cache.keySet().retainAll(profiles.keySet());
+            System.out.println("[SuggestionService] Computed suggestions for " + userIds.length + " users in "
+                + (System.nanoTime() - started) / 1_000_000 + " ms");
+        } catch (Exception e) {
+            System.err.println("[SuggestionService] Batch failed: " + e.getMessage());
+        } finally {
+            refreshing.set(false);
+        }
+    }
+
+    private final class Batch extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long[] userIds;
+        private final int from;
+        private final int to;
+
+        Batch(long[] userIds, int from, int to) {
+            this.userIds = userIds;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= BATCH_GRAIN) {
+                for (int i = from; i < to; i++) {
+                    cache.put(userIds[i], SuggestionService.this.compute(userIds[i]));
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Batch(userIds, from, middle), new Batch(userIds, middle, to));
+        }
+    }
+
+    // Collects every two-hop id into one array, sorts it and counts runs, so
+    // the mutual count of a candidate is the length of its run
+    private List<Candidate> compute(long userId) {
+        long[] followees = followGraph.followingOf(userId);
+        if (followees.length == 0) {
+            return List.of();
+        }
+
+        long[] hops = new long[64];
+        int size = 0;
+        int expanded = Math.min(followees.length, MAX_FOLLOWEES_EXPANDED);
+        for (int i = 0; i < expanded && size < MAX_CANDIDATE_EDGES; i++) {
+            long[] next = followGraph.followingOf(followees[i]);
+            int take = Math.min(next.length, MAX_CANDIDATE_EDGES - size);
+            if (size + take > hops.length) {
+                hops = Arrays.copyOf(hops, Math.max(hops.length * 2, size + take));
+            }
+            System.arraycopy(next, 0, hops, size, take);
+            size += take;
+        }
+        Arrays.sort(hops, 0, size);
+
+        Map<Long, Profile> known = profiles;
+        Profile own = known.containsKey(userId) ? known.get(userId) : loadProfile(userId);
+        List<Candidate> candidates = new ArrayList<>();
+        for (int start = 0; start < size; ) {
+            long candidate = hops[start];
+            int end = start;
+            while (end < size && hops[end] == candidate) {
+                end++;
+            }
+            Profile profile = known.get(candidate);
+            // Skip the user, accounts already followed and inactive users
+            if (candidate != userId && profile != null && Arrays.binarySearch(followees, candidate) < 0) {
+                int mutual = end - start;
+                candidates.add(new Candidate(candidate, mutual, mutual + boost(own, profile)));
+            }
+            start = end;
+        }
+
+        candidates.sort(Comparator.comparingDouble(Candidate::score).reversed()
+            .thenComparing(Comparator.comparingInt(Candidate::mutualCount).reversed())
+            .thenComparingLong(Candidate::userId));
+        return candidates.size() > listSize ? List.copyOf(candidates.subList(0, listSize)) : candidates;
+    }
+
+    private static double boost(Profile own, Profile other) {
+        if (own == null) {
+            return 0;
+        }
+        double boost = 0;
+        if (own.major() != null && own.major().equalsIgnoreCase(other.major())) {
+            boost += MAJOR_BOOST;
+        }
+        if (own.graduationYear() != null && own.graduationYear().equals(other.graduationYear())) {
+            boost += YEAR_BOOST;
+        }
+        return boost;
+    }
+
+    private Map<Long, Profile> loadProfiles() {
+        Map<Long, Profile> loaded = new HashMap<>();
+        jdbcTemplate.query("SELECT id, major, graduation_year FROM users WHERE active = TRUE",
+            rs -> {
+                loaded.put(rs.getLong("id"),
+                    new Profile(rs.getString("major"), rs.getObject("graduation_year", Integer.class)));
+            });
+        return loaded;
+    }
+
+    // An active user's profile, or null
+    private Profile loadProfile(long userId) {
+        List<Profile> found = jdbcTemplate.query(
+            "SELECT major, graduation_year FROM users WHERE id = ? AND active = TRUE",
+            (rs, rowNum) -> new Profile(rs.getString("major"), rs.getObject("graduation_year", Integer.class)),
+            userId);
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+}
@@ -0,0 +1,368 @@
+package com.example.socialapp.service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.socialapp.model.Post;
+import com.example.socialapp.model.TimelineEntry;
+import com.example.socialapp.repository.PostKey;
+import com.example.socialapp.repository.PostRepository;
+import com.example.socialapp.repository.TimelineEntryRepository;
+import com.example.socialapp.repository.UserFollowRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Hybrid home timeline. Posts are normally fanned out on write: the post id
+// is copied into the home_timeline rows of the author and each follower, so
+// reading a timeline is a single range scan. Accounts above
+// timeline.fanout.follower-threshold are not fanned out; their recent posts
+// are pulled and k-way merged into each reader's page at read time instead.
+//
+// Follows and unfollows touch timelines only after they commit. A fan-out or
+// backfill task can still read a follow just before an unfollow commits, so
+// each task re-reads the follows after inserting and takes back the rows of
+// anyone who is gone; whichever of the task and the unfollow's removal runs
+// last then leaves no entries behind.
+@Service
+public class TimelineService {
+
+    private static final int INSERT_BATCH_SIZE = 500;
+
+    private final TimelineEntryRepository timelineEntryRepository;
+    private final PostRepository postRepository;
+    private final UserFollowRepository userFollowRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final int backfillSize;
+    private final long followerThreshold;
+
+    // Accounts currently above the follower threshold, refreshed periodically
+    private volatile Set<Long> highFollowerIds = Collections.emptySet();
+
+    private final Counter fanoutSkipped;
+    private final DistributionSummary mergeSources;
+    private final DistributionSummary mergeRows;
+    private final Timer mergeTimer;
+
+    // Fan-out runs off the request thread; when the queue is full the caller
+    // does the work itself, which slows posting down instead of dropping entries
+    private final ExecutorService fanoutExecutor = new ThreadPoolExecutor(
+        2, 2, 60, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<>(10_000),
+        runnable -> {
+            Thread thread = new Thread(runnable, "timeline-fanout");
+            thread.setDaemon(true);
+            return thread;
+        },
+        new ThreadPoolExecutor.CallerRunsPolicy());
+
+    public TimelineService(TimelineEntryRepository timelineEntryRepository,
+                           PostRepository postRepository,
+                           UserFollowRepository userFollowRepository,
+                           JdbcTemplate jdbcTemplate,
+                           MeterRegistry meterRegistry,
+                           @Value("${timeline.backfill-size:20}") int backfillSize,
+                           @Value("${timeline.fanout.follower-threshold:5000}") long followerThreshold) {
+        this.timelineEntryRepository = timelineEntryRepository;
+        this.postRepository = postRepository;
+        this.userFollowRepository = userFollowRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.backfillSize = backfillSize;
+        this.followerThreshold = followerThreshold;
+
+        Gauge.builder("timeline.fanout.follower.threshold", () -> this.followerThreshold)
+                .description("Follower count above which posts are pulled at read time instead of fanned out")
+                .register(meterRegistry);
+        Gauge.builder("timeline.pull.accounts", () -> highFollowerIds.size())
+                .description("Accounts currently served by read-time merge")
+                .register(meterRegistry);
+        this.fanoutSkipped = Counter.builder("timeline.fanout.skipped")
+                .description("Posts not fanned out because the author is above the follower threshold")
+                .register(meterRegistry);
+        this.mergeSources = DistributionSummary.builder("timeline.merge.sources")
+                .description("Pulled accounts merged into one timeline page")
+                .register(meterRegistry);
+        this.mergeRows = DistributionSummary.builder("timeline.merge.rows")
+                .description("Candidate rows read to build one timeline page")
+                .register(meterRegistry);
+        this.mergeTimer = Timer.builder("timeline.merge")
+                .description("Time spent pulling and merging high-follower posts into a page")
+                .register(meterRegistry);
+    }
+
+    // An item of one merge source: a pushed timeline entry or a pulled post
+    private record TimelineItem(Instant createdAt, Long postId) {}
+
+    // Newest first, ties broken by id, matching the cursor order
+    private static final Comparator<TimelineItem> NEWEST_FIRST =
+        Comparator.comparing(TimelineItem::createdAt).thenComparing(TimelineItem::postId).reversed();
+
+    public record TimelinePage(List<Long> postIds, FeedCursor nextCursor) {}
+
+    // Queue a new post for delivery to its author's and followers' timelines
+    public void fanOut(Post post) {
+        Long postId = post.getId();
+        Long authorId = post.getUser().getId();
+        Instant createdAt = post.getCreatedAt();
+        fanoutExecutor.execute(() -> {
+            try {
+                // The same snapshot readers merge from, so every post is either pushed or pulled
+                if (highFollowerIds.contains(authorId)) {
+                    // Followers pull this post at read time; only the author's own timeline gets it
+                    insertEntries(List.of(authorId), postId, authorId, createdAt);
+                    fanoutSkipped.increment();
+                    return;
+                }
+                List<Long> followerIds = userFollowRepository.findFollowerIds(authorId);
+                List<Long> recipients = new ArrayList<>(followerIds);
+                recipients.add(authorId);
+                insertEntries(recipients, postId, authorId, createdAt);
+                dropUnfollowed(followerIds, authorId);
+            } catch (Exception e) {
+                System.err.println("[TimelineService] Fan-out failed for post " + postId + ": " + e.getMessage());
+            }
+        });
+    }
+
+    // Seed a new follower's timeline with the followed user's latest posts,
+    // once the follow commits
+    public void backfill(Long followerId, Long followedId) {
+        if (highFollowerIds.contains(followedId)) {
+            return;
+        }
+        afterCommit(() -> fanoutExecutor.execute(() -> {
+            try {
+                if (!userFollowRepository.existsByFollowerIdAndFollowedId(followerId, followedId)) {
+                    return;
+                }
+                for (PostKey key : postRepository.findUserKeys(followedId, Limit.of(backfillSize))) {
+                    insertEntries(List.of(followerId), key.id(), followedId, key.createdAt());
+                }
+                dropUnfollowed(List.of(followerId), followedId);
+            } catch (Exception e) {
+                System.err.println("[TimelineService] Backfill failed for follower " + followerId + ": " + e.getMessage());
+            }
+        }));
+    }
+
+    // Whether the author's posts are pulled at read time rather than fanned
+    // out, as of the last refresh
+    public boolean isPulled(Long authorId) {
+        return highFollowerIds.contains(authorId);
+    }
+
+    // Trim an author's posts out of a timeline once an unfollow commits
+    public void removeAuthor(Long userId, Long authorId) {
+        afterCommit(() -> fanoutExecutor.execute(() -> {
+            try {
+                deleteEntries(userId, authorId);
+            } catch (Exception e) {
+                System.err.println("[TimelineService] Could not remove author " + authorId + " from " + userId + ": " + e.getMessage());
+            }
+        }));
+    }
+
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${timeline.pull.refresh-ms:60000}", initialDelayString = "${timeline.pull.refresh-ms:60000}")
+    public void refreshHighFollowerAccounts() {
+        try {
+            Set<Long> previous = highFollowerIds;
+            Set<Long> current = Set.copyOf(userFollowRepository.findFollowedIdsWithMoreFollowersThan(followerThreshold));
+            highFollowerIds = current;
+            // Posts made while an account was pulled were never fanned out
+            for (Long authorId : previous) {
+                if (!current.contains(authorId)) {
+                    backfillFollowers(authorId);
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("[TimelineService] Could not refresh high-follower accounts: " + e.getMessage());
+        }
+    }
+
+    // Push an account's latest posts to all its followers once it is no
+    // longer pulled at read time
+    private void backfillFollowers(Long authorId) {
+        fanoutExecutor.execute(() -> {
+            try {
+                List<Long> followerIds = userFollowRepository.findFollowerIds(authorId);
+                for (PostKey key : postRepository.findUserKeys(authorId, Limit.of(backfillSize))) {
+                    insertEntries(followerIds, key.id(), authorId, key.createdAt());
+                }
+                dropUnfollowed(followerIds, authorId);
+            } catch (Exception e) {
+                System.err.println("[TimelineService] Backfill failed for followers of " + authorId + ": " + e.getMessage());
+            }
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public TimelinePage getPage(Long userId, FeedCursor after, int limit) {
+        List<TimelineEntry> entries = after == null
+                ? timelineEntryRepository.findPage(userId, Limit.of(limit))
+                : timelineEntryRepository.findPageAfter(userId, after.createdAt(), after.id(), Limit.of(limit));
+        List<TimelineItem> pushed = entries.stream()
+                .map(entry -> new TimelineItem(entry.getPostCreatedAt(), entry.getPostId()))
+                .collect(Collectors.toList());
+
+        List<List<TimelineItem>> sources = new ArrayList<>();
+        sources.add(pushed);
+        List<TimelineItem> page;
+        boolean more;
+
+        Set<Long> pulledAccounts = highFollowerIds;
+        List<Long> followedPulled = pulledAccounts.isEmpty()
+                ? Collections.emptyList()
+                : userFollowRepository.findFollowedIdsIn(userId, pulledAccounts);
+        if (followedPulled.isEmpty()) {
+            page = pushed;
+            more = pushed.size() == limit;
+        } else {
+            Timer.Sample sample = Timer.start();
+            int rows = pushed.size();
+            for (Long authorId : followedPulled) {
+                List<PostKey> recent = after == null
+                        ? postRepository.findUserKeys(authorId, Limit.of(limit))
+                        : postRepository.findUserKeysAfter(authorId, after.createdAt(), after.id(), Limit.of(limit));
+                rows += recent.size();
+                sources.add(recent.stream()
+                        .map(key -> new TimelineItem(key.createdAt(), key.id()))
+                        .collect(Collectors.toList()));
+            }
+            Merged merged = merge(sources, limit);
+            page = merged.items();
+            more = merged.more();
+            sample.stop(mergeTimer);
+            mergeSources.record(followedPulled.size());
+            mergeRows.record(rows);
+        }
+
+        if (page.isEmpty()) {
+            return new TimelinePage(Collections.emptyList(), null);
+        }
+        List<Long> postIds = page.stream().map(TimelineItem::postId).collect(Collectors.toList());
+        TimelineItem last = page.get(page.size() - 1);
+        FeedCursor next = more ? FeedCursor.of(last.createdAt(), last.postId()) : null;
+        return new TimelinePage(postIds, next);
+    }
+
+    // A merged page, and whether rows may follow it
+    private record Merged(List<TimelineItem> items, boolean more) {}
+
+    // k-way merge of sources that are each sorted newest first and read up to
+    // limit rows. Posts fanned out before their author crossed the threshold
+    // can appear twice, so ids are de-duplicated, which can leave the page
+    // short. The merge also stops once a source that was cut off at limit
+    // runs out, as its unread rows may come next; the cursor then resumes
+    // after the last row taken, so a short page can still have more behind it.
+    private Merged merge(List<List<TimelineItem>> sources, int limit) {
+        record Head(TimelineItem item, Iterator<TimelineItem> rest, boolean cutOff) {}
+        PriorityQueue<Head> heads = new PriorityQueue<>(Comparator.comparing(Head::item, NEWEST_FIRST));
+        for (List<TimelineItem> source : sources) {
+            Iterator<TimelineItem> iterator = source.iterator();
+            if (iterator.hasNext()) {
+                heads.add(new Head(iterator.next(), iterator, source.size() >= limit));
+            }
+        }
+
+        List<TimelineItem> merged = new ArrayList<>(limit);
+        Set<Long> seen = new HashSet<>();
+        while (merged.size() < limit && !heads.isEmpty()) {
+            Head head = heads.poll();
+            if (seen.add(head.item().postId())) {
+                merged.add(head.item());
+            }
+            if (head.rest().hasNext()) {
+                heads.add(new Head(head.rest().next(), head.rest(), head.cutOff()));
+            } else if (head.cutOff()) {
+                return new Merged(merged, true);
+            }
+        }
+        return new Merged(merged, merged.size() == limit);
+    }
+
+    // Multi-row INSERT IGNORE so a retried or duplicate fan-out is harmless
+    private void insertEntries(List<Long> userIds, Long postId, Long authorId, Instant createdAt) {
+        Timestamp postCreatedAt = Timestamp.from(createdAt);
+        for (int from = 0; from < userIds.size(); from += INSERT_BATCH_SIZE) {
+            List<Long> batch = userIds.subList(from, Math.min(from + INSERT_BATCH_SIZE, userIds.size()));
+            StringBuilder sql = new StringBuilder(
+                "INSERT IGNORE INTO home_timeline (user_id, post_id, author_id, post_created_at) VALUES ");
+            List<Object> args = new ArrayList<>(batch.size() * 4);
+            for (int i = 0; i < batch.size(); i++) {
+                sql.append(i == 0 ? "(?, ?, ?, ?)" : ", (?, ?, ?, ?)");
+                args.add(batch.get(i));
+                args.add(postId);
+                args.add(authorId);
+                args.add(postCreatedAt);
+            }
+            jdbcTemplate.update(sql.toString(), args.toArray());
+        }
+    }
+
+    // Take an author's entries back from whichever of these users stopped
+    // following them while the entries were being inserted
+    private void dropUnfollowed(List<Long> followerIds, Long authorId) {
+        if (followerIds.isEmpty()) {
+            return;
+        }
+        Set<Long> current = new HashSet<>(followerIds.size() == 1
+                ? userFollowRepository.findFollowerIdsIn(authorId, followerIds)
+                : userFollowRepository.findFollowerIds(authorId));
+        for (Long followerId : followerIds) {
+            if (!current.contains(followerId)) {
+                deleteEntries(followerId, authorId);
+            }
+        }
+    }
+
+    private void deleteEntries(Long userId, Long authorId) {
+        jdbcTemplate.update("DELETE FROM home_timeline WHERE user_id = ? AND author_id = ?", userId, authorId);
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        fanoutExecutor.shutdown();
+        fanoutExecutor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.socialapp.service;
+
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.socialapp.repository.PostRepository;
+import com.example.socialapp.repository.UserRepository;
+
+// Deletes a user account. The database cascades their posts, reactions,
+// comments and follows (ON DELETE CASCADE), which no service sees go, so
+// the counters kept on other users' posts and comments are adjusted in the
+// same transaction, their posts are logged as deleted for delta polling,
+// and the in-memory copies are told once it commits.
+@Service
+public class UserDeletionService {
+
+    private final UserRepository userRepository;
+    private final PostRepository postRepository;
+    private final PostReactionService postReactionService;
+    private final PostCommentService postCommentService;
+    private final ReactorBitmaps reactorBitmaps;
+    private final FollowGraph followGraph;
+    private final FollowSets followSets;
+    private final PostChangeLog postChangeLog;
+    private final PostViewCache postViewCache;
+    private final HotRankingService hotRankingService;
+
+    public UserDeletionService(UserRepository userRepository,
+                               PostRepository postRepository,
+                               PostReactionService postReactionService,
+                               PostCommentService postCommentService,
+                               ReactorBitmaps reactorBitmaps,
+                               FollowGraph followGraph,
+                               FollowSets followSets,
+                               PostChangeLog postChangeLog,
+                               PostViewCache postViewCache,
+                               HotRankingService hotRankingService) {
+        this.userRepository = userRepository;
+        this.postRepository = postRepository;
+        this.postReactionService = postReactionService;
+        this.postCommentService = postCommentService;
+        this.reactorBitmaps = reactorBitmaps;
+        this.followGraph = followGraph;
+        this.followSets = followSets;
+        this.postChangeLog = postChangeLog;
+        this.postViewCache = postViewCache;
+        this.hotRankingService = hotRankingService;
+    }
+
+    @Transactional
+    public void delete(Long userId) {
+        postReactionService.releaseUser(userId);
+        postCommentService.releaseUser(userId);
+        // Their posts go with them; polling clients must hear they are gone
+        List<Long> postIds = postRepository.findIdsByUserId(userId);
+        userRepository.deleteById(userId);
+        postChangeLog.appendAll(postIds, PostChangeLog.ChangeType.DELETED);
+        postViewCache.invalidateAuthor(userId);
+        afterCommit(() -> reactorBitmaps.removeUser(userId));
+        afterCommit(() -> postIds.forEach(hotRankingService::untrack));
+        followGraph.removeUser(userId);
+        followSets.removeUser(userId);
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+}
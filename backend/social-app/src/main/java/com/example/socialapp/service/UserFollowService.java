@@ -1,16 +1,26 @@
 package com.example.socialapp.service;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import com.example.socialapp.model.User;
 import com.example.socialapp.model.UserFollow;
+import com.example.socialapp.repository.FollowCount;
+import com.example.socialapp.repository.FollowRow;
 import com.example.socialapp.repository.UserFollowRepository;
 import com.example.socialapp.repository.UserRepository;
+import com.example.socialapp.repository.UserSummary;
 
 @Service
 public class UserFollowService {
@@ -20,6 +30,18 @@ public class UserFollowService {
     
     @Autowired
     private UserRepository userRepository;
+
+    @Autowired
+    private TimelineService timelineService;
+
+    @Autowired
+    private FollowGraph followGraph;
+
+    @Autowired
+    private SuggestionService suggestionService;
+
+    @Autowired
+    private FollowSets followSets;
     
     // Follow a user
     @Transactional
@@ -36,6 +58,10 @@ public class UserFollowService {
         
         UserFollow userFollow = new UserFollow(followerId, followedId);
         userFollowRepository.save(userFollow);
+        followGraph.follow(followerId, followedId);
+        followSets.invalidate(followerId, followedId);
+        suggestionService.onFollowChanged(followerId);
+        timelineService.backfill(followerId, followedId);
         return true;
     }
     
@@ -44,32 +70,168 @@ public class UserFollowService {
     public boolean unfollowUser(Long followerId, Long followedId) {
         if (userFollowRepository.existsByFollowerIdAndFollowedId(followerId, followedId)) {
             userFollowRepository.deleteByFollowerIdAndFollowedId(followerId, followedId);
+            followGraph.unfollow(followerId, followedId);
+            followSets.invalidate(followerId, followedId);
+            suggestionService.onFollowChanged(followerId);
+            timelineService.removeAuthor(followerId, followedId);
             return true;
         }
         return false;
     }
     
     // Check if a user is following another user
+    // (served from the in-memory graph once it has loaded)
     public boolean isFollowing(Long followerId, Long followedId) {
+        if (followGraph.ready()) {
+            return followGraph.isFollowing(followerId, followedId);
+        }
         return userFollowRepository.existsByFollowerIdAndFollowedId(followerId, followedId);
     }
     
     // Get follower count
     public long getFollowerCount(Long userId) {
+        if (followGraph.ready()) {
+            return followGraph.followerCount(userId);
+        }
         return userFollowRepository.countByFollowedId(userId);
     }
     
     // Get following count
     public long getFollowingCount(Long userId) {
+        if (followGraph.ready()) {
+            return followGraph.followingCount(userId);
+        }
         return userFollowRepository.countByFollowerId(userId);
     }
 
-    // Get list of users who follow the given user
-    public List<User> getFollowers(Long userId) {
-        List<UserFollow> follows = userFollowRepository.findByFollowedId(userId);
-        return follows.stream()
-                .map(follow -> userRepository.findById(follow.getFollowerId()).orElse(null))
-                .filter(user -> user != null)
-                .collect(Collectors.toList());
+    public record FollowState(Long userId, boolean isFollowing, boolean followsYou,
+                              long followerCount, long followingCount) {}
+
+    // Follow state of many users as seen by one viewer (who may be null),
+    // in the order given. From the in-memory graph when it is loaded,
+    // otherwise one IN query per relation.
+    @Transactional(readOnly = true)
+    public List<FollowState> getFollowStates(Long viewerId, Collection<Long> userIds) {
+        List<FollowState> states = new ArrayList<>(userIds.size());
+        if (userIds.isEmpty()) {
+            return states;
+        }
+
+        if (followGraph.ready()) {
+            for (Long userId : userIds) {
+                states.add(new FollowState(userId,
+                    viewerId != null && followGraph.isFollowing(viewerId, userId),
+                    viewerId != null && followGraph.isFollowing(userId, viewerId),
+                    followGraph.followerCount(userId),
+                    followGraph.followingCount(userId)));
+            }
+            return states;
+        }
+
+        Set<Long> following = viewerId == null ? Set.of()
+                : new HashSet<>(userFollowRepository.findFollowedIdsIn(viewerId, userIds));
+        Set<Long> followers = viewerId == null ? Set.of()
+                : new HashSet<>(userFollowRepository.findFollowerIdsIn(viewerId, userIds));
+        Map<Long, Long> followerCounts = new HashMap<>();
+        for (FollowCount count : userFollowRepository.countFollowersIn(userIds)) {
+            followerCounts.put(count.userId(), count.count());
+        }
+        Map<Long, Long> followingCounts = new HashMap<>();
+        for (FollowCount count : userFollowRepository.countFollowingIn(userIds)) {
+            followingCounts.put(count.userId(), count.count());
+        }
+        for (Long userId : userIds) {
+            states.add(new FollowState(userId, following.contains(userId), followers.contains(userId),
+                followerCounts.getOrDefault(userId, 0L), followingCounts.getOrDefault(userId, 0L)));
+        }
+        return states;
+    }
+
+    public record FollowEntry(Long id, String username, String profilePictureUrl, Boolean viewerFollows) {}
+
+    public record FollowPage(List<FollowEntry> users, Long nextCursor) {}
+
+    // A page of the user's followers, most recent first. The cursor is the
+    // follow row id to continue below; viewerFollows is only set when a
+    // viewer is given.
+    @Transactional(readOnly = true)
+    public FollowPage getFollowers(Long userId, Long cursor, int limit, Long viewerId) {
+        return page(userFollowRepository.findFollowersPage(userId, before(cursor), Limit.of(limit)), limit, viewerId);
+    }
+
+    // A page of the accounts the user follows, same shape as getFollowers
+    @Transactional(readOnly = true)
+    public FollowPage getFollowing(Long userId, Long cursor, int limit, Long viewerId) {
+        return page(userFollowRepository.findFollowingPage(userId, before(cursor), Limit.of(limit)), limit, viewerId);
+    }
+
+    private static Long before(Long cursor) {
+        return cursor == null ? Long.MAX_VALUE : cursor;
+    }
+
+    // One page query plus, without the graph, one IN query for the viewer's state
+    private FollowPage page(List<FollowRow> rows, int limit, Long viewerId) {
+        Set<Long> followedByViewer = Set.of();
+        if (viewerId != null && !rows.isEmpty()) {
+            List<Long> ids = rows.stream().map(FollowRow::userId).collect(Collectors.toList());
+            if (followGraph.ready()) {
+                followedByViewer = new HashSet<>();
+                for (Long id : ids) {
+                    if (followGraph.isFollowing(viewerId, id)) {
+                        followedByViewer.add(id);
+                    }
+                }
+            } else {
+                followedByViewer = new HashSet<>(userFollowRepository.findFollowedIdsIn(viewerId, ids));
+            }
+        }
+
+        List<FollowEntry> users = new ArrayList<>(rows.size());
+        for (FollowRow row : rows) {
+            users.add(new FollowEntry(row.userId(), row.username(), row.profilePictureUrl(),
+                viewerId == null ? null : followedByViewer.contains(row.userId())));
+        }
+        // A full page may have more rows behind it; a short page is the last one
+        Long next = rows.size() == limit ? rows.get(rows.size() - 1).followId() : null;
+        return new FollowPage(users, next);
+    }
+
+    // Followers of the user that the viewer follows ("followed by people you
+    // follow"), by user id. The cursor is the last user id of the previous page.
+    public FollowPage getFollowersFollowedBy(Long userId, Long viewerId, Long cursor, int limit) {
+        return idPage(FollowSets.intersect(followSets.followers(userId), followSets.following(viewerId)), cursor, limit);
+    }
+
+    // Users who are friends (follow each other) with both the user and the viewer
+    public FollowPage getMutualFriends(Long userId, Long viewerId, Long cursor, int limit) {
+        return idPage(FollowSets.intersect(followSets.friends(userId), followSets.friends(viewerId)), cursor, limit);
+    }
+
+    // The slice of sorted ids after the cursor, hydrated with one IN query.
+    // The viewer follows everyone in either list, so viewerFollows is true.
+    private FollowPage idPage(long[] ids, Long cursor, int limit) {
+        int from = 0;
+        if (cursor != null) {
+            int at = Arrays.binarySearch(ids, cursor);
+            from = at >= 0 ? at + 1 : -at - 1;
+        }
+        int to = Math.min(ids.length, from + limit);
+        if (from >= to) {
+            return new FollowPage(List.of(), null);
+        }
+
+        List<Long> pageIds = Arrays.stream(ids, from, to).boxed().collect(Collectors.toList());
+        Map<Long, UserSummary> summaries = new HashMap<>();
+        for (UserSummary summary : userRepository.findSummariesByIdIn(pageIds)) {
+            summaries.put(summary.id(), summary);
+        }
+        List<FollowEntry> users = new ArrayList<>(pageIds.size());
+        for (Long id : pageIds) {
+            UserSummary summary = summaries.get(id);
+            if (summary != null) {
+                users.add(new FollowEntry(summary.id(), summary.username(), summary.profilePictureUrl(), true));
+            }
+        }
+        return new FollowPage(users, to < ids.length ? ids[to - 1] : null);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,191 @@
+package com.example.socialapp.service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.socialapp.model.PostReaction;
+import com.example.socialapp.repository.PostReactionRepository;
+import com.example.socialapp.repository.ViewerReaction;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+
+// Per-viewer sets of recently liked and disliked post ids, so the userLiked /
+// userDisliked flags of a feed page come from memory. A viewer's sets are
+// loaded on first use with one range scan on idx_post_reactions_user_post,
+// covering posts from the last reaction-cache.window-days, and are kept
+// current by PostReactionService after each commit. Flags for older posts
+// fall back to one query for just those ids.
+//
+// Sets are sorted long[]s (8 bytes per reaction). The cache is weighed in
+// bytes against reaction-cache.max-bytes across all viewers, and viewers
+// idle for reaction-cache.idle-minutes are dropped.
+@Component
+public class ViewerReactionCache {
+
+    // Immutable; updates swap in a copy. Covers post ids >= floorPostId.
+    private record Membership(long floorPostId, long[] liked, long[] disliked) {
+
+        int weight() {
+            return 64 + 8 * (liked.length + disliked.length);
+        }
+    }
+
+    private final PostReactionRepository postReactionRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration window;
+    private final Cache<Long, Membership> cache;
+
+    // Lowest post id inside the window; refreshed periodically
+    private volatile long floorPostId = Long.MAX_VALUE;
+
+    public ViewerReactionCache(PostReactionRepository postReactionRepository,
+                               JdbcTemplate jdbcTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${reaction-cache.max-bytes:67108864}") long maxBytes,
+                               @Value("${reaction-cache.idle-minutes:30}") long idleMinutes,
+                               @Value("${reaction-cache.window-days:30}") long windowDays) {
+        this.postReactionRepository = postReactionRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.window = Duration.ofDays(windowDays);
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Long userId, Membership membership) -> membership.weight())
+                .expireAfterAccess(Duration.ofMinutes(idleMinutes))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "viewer-reactions");
+    }
+
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${reaction-cache.floor-refresh-ms:600000}", initialDelayString = "${reaction-cache.floor-refresh-ms:600000}")
+    public void refreshFloor() {
+        try {
+            Long floor = jdbcTemplate.queryForObject("SELECT MIN(id) FROM posts WHERE created_at >= ?",
+                Long.class, Timestamp.from(Instant.now().minus(window)));
+            // No recent posts: cover whatever gets created from now on
+            floorPostId = floor != null ? floor : nextPostId();
+        } catch (Exception e) {
+            System.err.println("[ViewerReactionCache] Could not refresh window floor: " + e.getMessage());
+        }
+    }
+
+    private long nextPostId() {
+        Long max = jdbcTemplate.queryForObject("SELECT MAX(id) FROM posts", Long.class);
+        return max == null ? 0 : max + 1;
+    }
+
+    // Fills the viewer's liked and disliked ids among postIds
+    public void lookup(Long viewerId, Collection<Long> postIds, Set<Long> liked, Set<Long> disliked) {
+        Membership membership = cache.get(viewerId, this::load);
+        List<Long> uncovered = new ArrayList<>();
+        for (Long postId : postIds) {
+            if (postId < membership.floorPostId()) {
+                uncovered.add(postId);
+            } else if (Arrays.binarySearch(membership.liked(), postId) >= 0) {
+                liked.add(postId);
+            } else if (Arrays.binarySearch(membership.disliked(), postId) >= 0) {
+                disliked.add(postId);
+            }
+        }
+        if (!uncovered.isEmpty()) {
+            for (ViewerReaction reaction : postReactionRepository.findViewerReactions(viewerId, uncovered)) {
+                (reaction.kind() == PostReaction.Kind.LIKE ? liked : disliked).add(reaction.postId());
+            }
+        }
+    }
+
+    // Record the viewer's new reaction to a post (null for none) once the
+    // surrounding transaction commits. Only viewers already in the cache are
+    // touched; anyone else is loaded fresh on next use.
+    public void update(Long userId, Long postId, PostReaction.Kind kind) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(userId, postId, kind);
+                }
+            });
+        } else {
+            apply(userId, postId, kind);
+        }
+    }
+
+    private void apply(Long userId, Long postId, PostReaction.Kind kind) {
+        cache.asMap().computeIfPresent(userId, (id, membership) -> {
+            if (postId < membership.floorPostId()) {
+                return membership;
+            }
+            long[] liked = without(membership.liked(), postId);
+            long[] disliked = without(membership.disliked(), postId);
+            if (kind == PostReaction.Kind.LIKE) {
+                liked = with(liked, postId);
+            } else if (kind == PostReaction.Kind.DISLIKE) {
+                disliked = with(disliked, postId);
+            }
+            return new Membership(membership.floorPostId(), liked, disliked);
+        });
+    }
+
+    private Membership load(Long userId) {
+        long floor = floorPostId;
+        List<Long> liked = new ArrayList<>();
+        List<Long> disliked = new ArrayList<>();
+        jdbcTemplate.query(
+            "SELECT post_id, kind FROM post_reactions WHERE user_id = ? AND post_id >= ? ORDER BY post_id",
+            rs -> {
+                (PostReaction.Kind.LIKE.name().equals(rs.getString("kind")) ? liked : disliked)
+                    .add(rs.getLong("post_id"));
+            },
+            userId, floor);
+        return new Membership(floor, toArray(liked), toArray(disliked));
+    }
+
+    private static long[] toArray(List<Long> sortedIds) {
+        long[] array = new long[sortedIds.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = sortedIds.get(i);
+        }
+        return array;
+    }
+
+    private static long[] with(long[] sorted, long id) {
+        int at = Arrays.binarySearch(sorted, id);
+        if (at >= 0) {
+            return sorted;
+        }
+        int insertAt = -at - 1;
+        long[] copy = new long[sorted.length + 1];
+        System.arraycopy(sorted, 0, copy, 0, insertAt);
+        copy[insertAt] = id;
+        System.arraycopy(sorted, insertAt, copy, insertAt + 1, sorted.length - insertAt);
+        return copy;
+    }
+
+    private static long[] without(long[] sorted, long id) {
+        int at = Arrays.binarySearch(sorted, id);
+        if (at < 0) {
+            return sorted;
+        }
+        long[] copy = new long[sorted.length - 1];
+        System.arraycopy(sorted, 0, copy, 0, at);
+        System.arraycopy(sorted, at + 1, copy, at, sorted.length - at - 1);
+        return copy;
+    }
+}
@@ -0,0 +1,3 @@
+-- Lets the per-user feed seek on (user_id, created_at, id) instead of
+-- sorting every post of the user on each page
+CREATE INDEX idx_posts_user_created_at ON posts (user_id, created_at);
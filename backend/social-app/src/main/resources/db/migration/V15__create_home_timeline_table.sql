@@ -0,0 +1,15 @@
+-- Materialized "posts from people I follow" timeline, filled on write by
+-- fanning each new post out to the author's followers
+CREATE TABLE IF NOT EXISTS home_timeline (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    post_id BIGINT NOT NULL,
+    author_id BIGINT NOT NULL,
+    post_created_at TIMESTAMP NOT NULL,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    FOREIGN KEY (post_id) REFERENCES posts(id) ON DELETE CASCADE,
+    UNIQUE KEY unique_timeline_entry (user_id, post_id),
+    INDEX idx_home_timeline_user_created_at (user_id, post_created_at, post_id),
+    INDEX idx_home_timeline_user_author (user_id, author_id),
+    INDEX idx_home_timeline_post_id (post_id)
+);
@@ -0,0 +1,12 @@
+-- Denormalized engagement counters, kept current by the like, dislike and
+-- comment services so readers no longer run COUNT(*) per post
+ALTER TABLE posts
+ADD COLUMN like_count BIGINT NOT NULL DEFAULT 0,
+ADD COLUMN dislike_count BIGINT NOT NULL DEFAULT 0,
+ADD COLUMN comment_count BIGINT NOT NULL DEFAULT 0;
+
+-- Backfill from the existing rows
+UPDATE posts p SET
+    like_count = (SELECT COUNT(*) FROM post_likes l WHERE l.post_id = p.id),
+    dislike_count = (SELECT COUNT(*) FROM post_dislikes d WHERE d.post_id = p.id),
+    comment_count = (SELECT COUNT(*) FROM post_comments c WHERE c.post_id = p.id);
@@ -0,0 +1,3 @@
+-- Last profile change, used to answer conditional GETs on user profiles
+ALTER TABLE users
+ADD COLUMN updated_at TIMESTAMP NULL;
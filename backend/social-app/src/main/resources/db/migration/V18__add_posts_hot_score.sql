@@ -0,0 +1,13 @@
+-- Persisted "hot" score, so pages past the in-memory ranking window can be
+-- read in score order from an index instead of re-scoring the table.
+-- score = sign(n) * log10(max(|n|, 1)) + epoch_seconds(created_at) / 45000
+-- with n = likes - dislikes + 2 * comments (see HotRankingService)
+ALTER TABLE posts
+ADD COLUMN hot_score DOUBLE NOT NULL DEFAULT 0;
+
+UPDATE posts SET hot_score =
+    SIGN(like_count - dislike_count + 2 * comment_count)
+        * LOG10(GREATEST(ABS(like_count - dislike_count + 2 * comment_count), 1))
+    + UNIX_TIMESTAMP(created_at) / 45000;
+
+CREATE INDEX idx_posts_hot_score ON posts (hot_score, id);
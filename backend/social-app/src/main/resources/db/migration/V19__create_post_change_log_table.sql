@@ -0,0 +1,10 @@
+-- Append-only log of post changes, read by GET /api/posts/delta so polling
+-- clients fetch what changed since their cursor (the last id they saw)
+-- instead of the whole feed. No FK to posts: deletions must stay visible.
+CREATE TABLE IF NOT EXISTS post_change_log (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    post_id BIGINT NOT NULL,
+    change_type VARCHAR(16) NOT NULL,
+    changed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_post_change_log_changed_at (changed_at)
+);
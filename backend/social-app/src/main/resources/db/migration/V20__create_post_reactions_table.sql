@@ -0,0 +1,28 @@
+-- One row per (post, user) reaction replaces the twin post_likes and
+-- post_dislikes tables. The primary key makes like and dislike mutually
+-- exclusive, and a write now touches two indexes instead of up to six.
+CREATE TABLE IF NOT EXISTS post_reactions (
+    post_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    kind VARCHAR(10) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (post_id, user_id),
+    FOREIGN KEY (post_id) REFERENCES posts(id) ON DELETE CASCADE,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    INDEX idx_post_reactions_user_post (user_id, post_id)
+);
+
+INSERT INTO post_reactions (post_id, user_id, kind, created_at)
+SELECT post_id, user_id, 'LIKE', created_at FROM post_likes;
+
+-- Should a user have both, the like wins
+INSERT IGNORE INTO post_reactions (post_id, user_id, kind, created_at)
+SELECT post_id, user_id, 'DISLIKE', created_at FROM post_dislikes;
+
+-- Recount, since any such duplicates were counted twice before
+UPDATE posts p SET
+    like_count = (SELECT COUNT(*) FROM post_reactions r WHERE r.post_id = p.id AND r.kind = 'LIKE'),
+    dislike_count = (SELECT COUNT(*) FROM post_reactions r WHERE r.post_id = p.id AND r.kind = 'DISLIKE');
+
+DROP TABLE post_likes;
+DROP TABLE post_dislikes;
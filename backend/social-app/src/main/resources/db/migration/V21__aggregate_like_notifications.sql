@@ -0,0 +1,27 @@
+-- Likes on the same post within notifications.like-window-minutes collapse
+-- into one LIKE notification: actor_id/actor_username hold the latest liker
+-- and actor_count how many people the row stands for. last_pushed_at and
+-- push_pending limit the owner's socket to one frame per window.
+ALTER TABLE notifications
+    ADD COLUMN actor_count INT NOT NULL DEFAULT 1,
+    ADD COLUMN last_pushed_at TIMESTAMP NULL,
+    ADD COLUMN push_pending BOOLEAN NOT NULL DEFAULT FALSE,
+    ADD INDEX idx_notifications_user_post_type (user_id, post_id, type, created_at),
+    ADD INDEX idx_notifications_push_pending (push_pending, last_pushed_at);
+
+-- Each liker is announced once per post, so like/unlike toggling neither
+-- adds rows nor inflates actor_count
+CREATE TABLE IF NOT EXISTS like_notification_actors (
+    post_id BIGINT NOT NULL,
+    actor_id BIGINT NOT NULL,
+    notification_id BIGINT NOT NULL,
+    PRIMARY KEY (post_id, actor_id),
+    FOREIGN KEY (post_id) REFERENCES posts(id) ON DELETE CASCADE,
+    FOREIGN KEY (actor_id) REFERENCES users(id) ON DELETE CASCADE,
+    FOREIGN KEY (notification_id) REFERENCES notifications(id) ON DELETE CASCADE
+);
+
+INSERT IGNORE INTO like_notification_actors (post_id, actor_id, notification_id)
+SELECT post_id, actor_id, MAX(id) FROM notifications
+WHERE type = 'LIKE' AND post_id IS NOT NULL AND actor_id IS NOT NULL
+GROUP BY post_id, actor_id;
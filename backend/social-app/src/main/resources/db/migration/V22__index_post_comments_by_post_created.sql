@@ -0,0 +1,5 @@
+-- Comment pages seek on (post_id, created_at, id). The index keeps its name
+-- and still serves the post_id foreign key.
+ALTER TABLE post_comments
+    DROP INDEX idx_post_comments_post_id,
+    ADD INDEX idx_post_comments_post_id (post_id, created_at, id);
@@ -0,0 +1,19 @@
+-- Reply threads stored as materialized paths: path is the chain of ids
+-- from the top-level comment down to this one, each zero-padded to 19
+-- digits and followed by '/', so sorting by path is a depth-first walk
+-- with siblings in creation order. A thread page is one range scan on
+-- (root_id, path). reply_count is the number of comments below this one.
+ALTER TABLE post_comments
+    ADD COLUMN parent_id BIGINT NULL,
+    ADD COLUMN root_id BIGINT NULL,
+    ADD COLUMN path VARCHAR(200) CHARACTER SET ascii COLLATE ascii_bin NOT NULL DEFAULT '',
+    ADD COLUMN depth INT NOT NULL DEFAULT 0,
+    ADD COLUMN reply_count INT NOT NULL DEFAULT 0,
+    ADD CONSTRAINT fk_post_comments_parent FOREIGN KEY (parent_id) REFERENCES post_comments(id) ON DELETE CASCADE;
+
+-- Existing comments are all top-level
+UPDATE post_comments SET root_id = id, path = CONCAT(LPAD(id, 19, '0'), '/');
+
+ALTER TABLE post_comments
+    ADD INDEX idx_post_comments_thread (root_id, path),
+    ADD INDEX idx_post_comments_top_level (post_id, depth, created_at, id);
@@ -0,0 +1,9 @@
+-- Highest post_change_log id pruned so far. A delta cursor below it may
+-- have missed pruned rows, even when none are left to compare against.
+CREATE TABLE IF NOT EXISTS post_change_log_state (
+    id TINYINT PRIMARY KEY,
+    pruned_through BIGINT NOT NULL
+);
+
+INSERT INTO post_change_log_state (id, pruned_through)
+SELECT 1, COALESCE(MIN(id) - 1, 0) FROM post_change_log;
@@ -0,0 +1,7 @@
+-- One row per liked post, taken with an exclusive lock while a like
+-- finds or creates the post's aggregated LIKE notification, so concurrent
+-- likers queue here instead of on the posts row
+CREATE TABLE IF NOT EXISTS like_notification_locks (
+    post_id BIGINT PRIMARY KEY,
+    FOREIGN KEY (post_id) REFERENCES posts(id) ON DELETE CASCADE
+);
@@ -0,0 +1,42 @@
+package com.example.socialapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+
+class FeedCursorTest {
+
+    @Test
+    void roundTripsKeepingNanos() {
+        FeedCursor cursor = FeedCursor.of(Instant.ofEpochSecond(1_700_000_000L, 123_456_789), 42L);
+
+        String token = cursor.encode();
+
+        assertThat(token).doesNotContain("=", "+", "/");
+        assertThat(FeedCursor.decode(token)).isEqualTo(cursor);
+    }
+
+    @Test
+    void roundTripsTimesBeforeTheEpoch() {
+        FeedCursor cursor = FeedCursor.of(Instant.parse("1969-12-31T23:59:59.5Z"), 1L);
+
+        assertThat(FeedCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        assertThatThrownBy(() -> FeedCursor.decode("not base64!")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> FeedCursor.decode(encode("1700000000:42"))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> FeedCursor.decode(encode("1700000000.0:x"))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> FeedCursor.decode("")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.socialapp.service;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeSet;
+
+// Startup-time and memory report for FollowGraph at 1M edges: 100k users
+// with skewed in-degrees (a few accounts are followed by many), built with
+// the same Builder and transpose the startup load uses, minus the DB scan.
+// Not a test; run it after `mvn test-compile` with
+//
+//   mvn -q dependency:build-classpath -Dmdep.outputFile=/tmp/cp.txt
+//   java -cp target/test-classes:target/classes:$(cat /tmp/cp.txt) \
+//       com.example.socialapp.service.FollowGraphReport [edges] [users]
+public class FollowGraphReport {
+
+    public static void main(String[] args) {
+        int edges = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int users = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        long[][] rows = edges(edges, users, new Random(42));
+        long total = Arrays.stream(rows).mapToLong(row -> row.length).sum();
+        System.out.printf("%,d edges over %,d users%n", total, users);
+
+        // The first build pays for class loading and JIT; later ones are warm
+        for (int round = 0; round < 5; round++) {
+            Runtime runtime = Runtime.getRuntime();
+            gc();
+            long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+            long started = System.nanoTime();
+            FollowGraph.Adjacency out = build(rows);
+            FollowGraph.Adjacency in = out.transpose();
+            long millis = (System.nanoTime() - started) / 1_000_000;
+            gc();
+            long heapAfter = runtime.totalMemory() - runtime.freeMemory();
+            System.out.printf("build + transpose %s: %d ms, estimate %.1f MiB, heap delta %.1f MiB%n",
+                round == 0 ? "cold" : "warm", millis,
+                (out.bytes() + in.bytes()) / 1048576.0, (heapAfter - heapBefore) / 1048576.0);
+            if (round == 4) {
+                verify(rows, in);
+                lookups(out, in, users);
+            }
+        }
+    }
+
+    // Targets per follower, sorted and unique, as ORDER BY follower_id, followed_id returns them
+    private static long[][] edges(int edges, int users, Random random) {
+        long[][] rows = new long[users][];
+        int perUser = edges / users;
+        for (int from = 0; from < users; from++) {
+            TreeSet<Long> targets = new TreeSet<>();
+            while (targets.size() < perUser) {
+                // Cubing a uniform draw piles the targets onto the low ids
+                long to = (long) (users * Math.pow(random.nextDouble(), 3));
+                if (to != from) {
+                    targets.add(to);
+                }
+            }
+            rows[from] = targets.stream().mapToLong(Long::longValue).toArray();
+        }
+        return rows;
+    }
+
+    private static FollowGraph.Adjacency build(long[][] rows) {
+        FollowGraph.Builder builder = new FollowGraph.Builder();
+        for (int from = 0; from < rows.length; from++) {
+            for (long to : rows[from]) {
+                builder.add(from, to);
+            }
+        }
+        return builder.build();
+    }
+
+    private static void verify(long[][] rows, FollowGraph.Adjacency in) {
+        long matched = 0;
+        for (int from = 0; from < rows.length; from++) {
+            for (long to : rows[from]) {
+                if (Arrays.binarySearch(in.neighbours(to), from) < 0) {
+                    throw new IllegalStateException("Missing in-edge " + to + " <- " + from);
+                }
+                matched++;
+            }
+        }
+        if (matched != in.edges()) {
+            throw new IllegalStateException(in.edges() + " in-edges for " + matched + " out-edges");
+        }
+        System.out.printf("transposed in-edges match all %,d out-edges%n", matched);
+    }
+
+    private static void lookups(FollowGraph.Adjacency out, FollowGraph.Adjacency in, int users) {
+        Random random = new Random(1);
+        int pairs = 5_000_000;
+        long[] from = new long[pairs];
+        long[] to = new long[pairs];
+        for (int i = 0; i < pairs; i++) {
+            from[i] = random.nextInt(users);
+            to[i] = random.nextInt(users);
+        }
+        long sink = 0;
+        for (int round = 0; round < 3; round++) {
+            long started = System.nanoTime();
+            for (int i = 0; i < pairs; i++) {
+                sink += out.contains(from[i], to[i]) ? 1 : 0;
+                sink += in.degree(to[i]) + out.degree(from[i]);
+            }
+            long nanos = System.nanoTime() - started;
+            System.out.printf("isFollowing + both counts: %.1f ns per pair%n", (double) nanos / pairs);
+        }
+        // Printed so the loop cannot be optimized away
+        System.out.println("checksum " + sink);
+    }
+
+    private static void gc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.socialapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class FollowGraphTest {
+
+    private static FollowGraph.Adjacency build(long[][] edges) {
+        FollowGraph.Builder builder = new FollowGraph.Builder();
+        for (long[] edge : edges) {
+            builder.add(edge[0], edge[1]);
+        }
+        return builder.build();
+    }
+
+    @Test
+    void builderKeepsRowsAcrossSegments() {
+        // 4096 users per segment: 1 and 7 share one, 5000 and 9000 are in the next two
+        FollowGraph.Adjacency graph = build(new long[][] {
+            { 1, 2 }, { 1, 9000 }, { 7, 1 }, { 5000, 1 }, { 5000, 7 }, { 5000, 9000 }, { 9000, 5000 }
+        });
+
+        assertThat(graph.neighbours(1)).containsExactly(2, 9000);
+        assertThat(graph.neighbours(5000)).containsExactly(1, 7, 9000);
+        assertThat(graph.degree(7)).isEqualTo(1);
+        assertThat(graph.degree(2)).isZero();
+        assertThat(graph.contains(9000, 5000)).isTrue();
+        assertThat(graph.contains(5000, 2)).isFalse();
+        assertThat(graph.edges()).isEqualTo(7);
+    }
+
+    @Test
+    void unknownAndNegativeUsersHaveNoEdges() {
+        FollowGraph.Adjacency graph = build(new long[][] { { 3, 4 } });
+
+        assertThat(graph.degree(1L << 40)).isZero();
+        assertThat(graph.neighbours(-1)).isEmpty();
+        assertThat(graph.contains(-1, 3)).isFalse();
+    }
+
+    @Test
+    void builderRejectsUnsortedOrRepeatedEdges() {
+        FollowGraph.Builder unsorted = new FollowGraph.Builder();
+        unsorted.add(5, 1);
+        assertThatThrownBy(() -> unsorted.add(4, 9)).isInstanceOf(IllegalArgumentException.class);
+
+        FollowGraph.Builder repeated = new FollowGraph.Builder();
+        repeated.add(5, 1);
+        assertThatThrownBy(() -> repeated.add(5, 1)).isInstanceOf(IllegalArgumentException.class);
+
+        assertThatThrownBy(() -> new FollowGraph.Builder().add(-1, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void transposeReversesEveryEdge() {
+        Random random = new Random(7);
+        Map<Long, TreeSet<Long>> out = new TreeMap<>();
+        for (int i = 0; i < 20_000; i++) {
+            out.computeIfAbsent((long) random.nextInt(20_000), id -> new TreeSet<>()).add((long) random.nextInt(20_000));
+        }
+        FollowGraph.Builder builder = new FollowGraph.Builder();
+        Map<Long, TreeSet<Long>> in = new TreeMap<>();
+        out.forEach((from, targets) -> {
+            for (Long to : targets) {
+                builder.add(from, to);
+                in.computeIfAbsent(to, id -> new TreeSet<>()).add(from);
+            }
+        });
+
+        FollowGraph.Adjacency reversed = builder.build().transpose();
+
+        long edges = 0;
+        for (Map.Entry<Long, TreeSet<Long>> entry : in.entrySet()) {
+            long[] expected = entry.getValue().stream().mapToLong(Long::longValue).toArray();
+            assertThat(reversed.neighbours(entry.getKey())).containsExactly(expected);
+            edges += expected.length;
+        }
+        assertThat(reversed.edges()).isEqualTo(edges);
+    }
+
+    @Test
+    void transposeOfEmptyGraphIsEmpty() {
+        FollowGraph.Adjacency reversed = new FollowGraph.Builder().build().transpose();
+
+        assertThat(reversed.edges()).isZero();
+        assertThat(reversed.degree(1)).isZero();
+    }
+
+    @Test
+    void segmentAddInsertsInOrderAndCopiesOnlyThatRow() {
+        FollowGraph.Adjacency graph = build(new long[][] { { 3, 10 }, { 3, 20 }, { 5, 1 } });
+        FollowGraph.Segment segment = graph.segmentOf(3);
+        long[] built = segment.targets;
+
+        assertThat(segment.add(3, 15)).isTrue();
+        assertThat(segment.add(3, 10)).isFalse();
+
+        assertThat(segment.row(3)).containsExactly(10, 15, 20);
+        assertThat(segment.row(5)).containsExactly(1);
+        assertThat(segment.degree(4)).isZero();
+        assertThat(segment.edges()).isEqualTo(4);
+        // The built rows are left as they were
+        assertThat(segment.targets).isSameAs(built).containsExactly(10, 20, 1);
+    }
+
+    @Test
+    void segmentRemoveDropsOnlyThatEdge() {
+        FollowGraph.Adjacency graph = build(new long[][] { { 3, 10 }, { 3, 20 }, { 5, 1 } });
+        FollowGraph.Segment segment = graph.segmentOf(3);
+
+        assertThat(segment.remove(3, 10)).isTrue();
+        assertThat(segment.remove(3, 99)).isFalse();
+
+        assertThat(segment.row(3)).containsExactly(20);
+        assertThat(segment.row(5)).containsExactly(1);
+        assertThat(segment.contains(3, 10)).isFalse();
+        assertThat(segment.contains(3, 20)).isTrue();
+        assertThat(segment.edges()).isEqualTo(2);
+    }
+
+    @Test
+    void addingToAnEmptySegmentLeavesTheSharedEmptyAlone() {
+        FollowGraph.Adjacency graph = build(new long[][] { { 1, 2 } });
+
+        graph.add(9000, 1);
+
+        assertThat(graph.neighbours(9000)).containsExactly(1);
+        assertThat(graph.edges()).isEqualTo(2);
+        assertThat(FollowGraph.Segment.EMPTY.edges()).isZero();
+        assertThat(FollowGraph.Segment.EMPTY.degree(9000 & 4095)).isZero();
+    }
+
+    @Test
+    void transposeSeesRowsChangedAfterTheBuild() {
+        FollowGraph.Adjacency graph = build(new long[][] { { 1, 2 }, { 1, 3 } });
+        graph.add(1, 9000);
+        graph.remove(1, 2);
+
+        FollowGraph.Adjacency reversed = graph.transpose();
+
+        assertThat(reversed.neighbours(2)).isEmpty();
+        assertThat(reversed.neighbours(3)).containsExactly(1);
+        assertThat(reversed.neighbours(9000)).containsExactly(1);
+        assertThat(reversed.edges()).isEqualTo(2);
+    }
+
+    @Test
+    void followAndUnfollowUpdateBothDirections() {
+        FollowGraph graph = new FollowGraph(null, new SimpleMeterRegistry());
+        graph.install(build(new long[][] { { 1, 2 } }));
+
+        // No transaction here, so changes apply at once
+        graph.follow(3L, 2L);
+        graph.follow(2L, 5000L);
+        graph.unfollow(1L, 2L);
+
+        assertThat(graph.ready()).isTrue();
+        assertThat(graph.isFollowing(3, 2)).isTrue();
+        assertThat(graph.isFollowing(1, 2)).isFalse();
+        assertThat(graph.followersOf(2)).containsExactly(3);
+        assertThat(graph.followersOf(5000)).containsExactly(2);
+        assertThat(graph.followingCount(2)).isEqualTo(1);
+        assertThat(graph.followerCount(1)).isZero();
+    }
+
+    @Test
+    void removeUserDropsEdgesInBothDirections() {
+        FollowGraph graph = new FollowGraph(null, new SimpleMeterRegistry());
+        graph.install(build(new long[][] { { 1, 2 }, { 2, 1 }, { 2, 3 }, { 3, 1 }, { 3, 2 } }));
+
+        graph.removeUser(2L);
+
+        assertThat(graph.isFollowing(1, 2)).isFalse();
+        assertThat(graph.isFollowing(3, 2)).isFalse();
+        assertThat(graph.followersOf(1)).containsExactly(3);
+        assertThat(graph.followingOf(1)).isEmpty();
+        assertThat(graph.followerCount(3)).isZero();
+        assertThat(graph.followingCount(2)).isZero();
+        assertThat(graph.followerCount(2)).isZero();
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.socialapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+class FollowSetsTest {
+
+    @Test
+    void gallopFindsFirstIndexAtOrAboveTarget() {
+        long[] array = { 2, 4, 4, 8, 16, 32, 64, 128, 256 };
+
+        assertThat(FollowSets.gallop(array, 0, 1)).isZero();
+        assertThat(FollowSets.gallop(array, 0, 4)).isEqualTo(1);
+        assertThat(FollowSets.gallop(array, 0, 5)).isEqualTo(3);
+        assertThat(FollowSets.gallop(array, 0, 200)).isEqualTo(8);
+        assertThat(FollowSets.gallop(array, 0, 256)).isEqualTo(8);
+        assertThat(FollowSets.gallop(array, 0, 999)).isEqualTo(array.length);
+    }
+
+    @Test
+    void gallopNeverMovesBackBeforeFrom() {
+        long[] array = { 2, 4, 8, 16, 32 };
+
+        assertThat(FollowSets.gallop(array, 3, 1)).isEqualTo(3);
+        assertThat(FollowSets.gallop(array, 3, 32)).isEqualTo(4);
+        assertThat(FollowSets.gallop(array, 5, 1)).isEqualTo(5);
+        assertThat(FollowSets.gallop(new long[0], 0, 1)).isZero();
+    }
+
+    @Test
+    void intersectKeepsCommonIdsInOrder() {
+        long[] a = { 1, 3, 5, 7, 9 };
+        long[] b = { 2, 3, 4, 7, 10, 11 };
+
+        assertThat(FollowSets.intersect(a, b)).containsExactly(3, 7);
+        assertThat(FollowSets.intersect(b, a)).containsExactly(3, 7);
+        assertThat(FollowSets.intersect(a, new long[0])).isEmpty();
+        assertThat(FollowSets.intersect(new long[] { 1, 2 }, new long[] { 3, 4 })).isEmpty();
+    }
+
+    @Test
+    void intersectMatchesSetsForUnevenSizes() {
+        Random random = new Random(7);
+        for (int round = 0; round < 50; round++) {
+            TreeSet<Long> small = ids(random, 1 + random.nextInt(20), 10_000);
+            TreeSet<Long> large = ids(random, 1 + random.nextInt(5_000), 10_000);
+            TreeSet<Long> common = new TreeSet<>(small);
+            common.retainAll(large);
+
+            long[] expected = common.stream().mapToLong(Long::longValue).toArray();
+            assertThat(FollowSets.intersect(toArray(small), toArray(large))).containsExactly(expected);
+        }
+    }
+
+    private static TreeSet<Long> ids(Random random, int count, int space) {
+        TreeSet<Long> ids = new TreeSet<>();
+        while (ids.size() < count) {
+            ids.add((long) random.nextInt(space));
+        }
+        return ids;
+    }
+
+    private static long[] toArray(TreeSet<Long> ids) {
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.socialapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+
+class HotCursorTest {
+
+    @Test
+    void roundTripsScoreBitsExactly() {
+        HotCursor window = new HotCursor(false, 0.1 + 0.2, 42L);
+        HotCursor archived = new HotCursor(true, -3.75e-12, 7L);
+
+        assertThat(HotCursor.decode(window.encode())).isEqualTo(window);
+        assertThat(HotCursor.decode(archived.encode())).isEqualTo(archived);
+    }
+
+    @Test
+    void roundTripsNegativeZero() {
+        HotCursor decoded = HotCursor.decode(new HotCursor(true, -0.0, 1L).encode());
+
+        assertThat(Double.doubleToRawLongBits(decoded.score())).isEqualTo(Double.doubleToRawLongBits(-0.0));
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        assertThatThrownBy(() -> HotCursor.decode("not base64!")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> HotCursor.decode(encode("x:0:1"))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> HotCursor.decode(encode("w:0"))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> HotCursor.decode(encode("w:zz:1"))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> HotCursor.decode(encode("a:0:1:2"))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
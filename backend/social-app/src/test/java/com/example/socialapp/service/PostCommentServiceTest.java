@@ -0,0 +1,31 @@
+package com.example.socialapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+class PostCommentServiceTest {
+
+    @Test
+    void segmentIsZeroPaddedAndSortsLikeTheId() {
+        assertThat(PostCommentService.segment(42L)).isEqualTo("0000000000000000042/");
+        assertThat(PostCommentService.segment(Long.MAX_VALUE)).isEqualTo(Long.MAX_VALUE + "/");
+        assertThat(PostCommentService.segment(9L).compareTo(PostCommentService.segment(10L))).isNegative();
+    }
+
+    @Test
+    void pathIdsReadsSegmentsTopLevelFirst() {
+        String path = PostCommentService.segment(7L) + PostCommentService.segment(123L) + PostCommentService.segment(9L);
+
+        assertThat(PostCommentService.pathIds(path)).containsExactly(7L, 123L, 9L);
+        assertThat(PostCommentService.pathIds(PostCommentService.segment(1L))).containsExactly(1L);
+        assertThat(PostCommentService.pathIds("")).isEmpty();
+    }
+
+    @Test
+    void pathIdsRejectsNonNumericSegments() {
+        assertThatThrownBy(() -> PostCommentService.pathIds("000000000000000abcd/"))
+            .isInstanceOf(NumberFormatException.class);
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.socialapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.example.socialapp.repository.UserRepository;
+import com.example.socialapp.repository.UserSummary;
+
+// idPage through getMutualFriends: both users' friends are the same ids,
+// so the intersection is exactly IDS and only the cursor slicing is tested
+@ExtendWith(MockitoExtension.class)
+class UserFollowServiceTest {
+
+    private static final long[] IDS = { 3, 5, 8, 13, 21 };
+
+    @Mock
+    private FollowSets followSets;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private UserFollowService userFollowService;
+
+    @BeforeEach
+    void setUp() {
+        when(followSets.friends(1L)).thenReturn(IDS);
+        when(followSets.friends(2L)).thenReturn(IDS);
+    }
+
+    private void summariesFound() {
+        when(userRepository.findSummariesByIdIn(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().map(id -> new UserSummary(id, "user" + id, null)).toList();
+        });
+    }
+
+    private static List<Long> ids(UserFollowService.FollowPage page) {
+        return page.users().stream().map(UserFollowService.FollowEntry::id).toList();
+    }
+
+    @Test
+    void firstPageEndsWithCursorAtItsLastId() {
+        summariesFound();
+
+        UserFollowService.FollowPage page = userFollowService.getMutualFriends(1L, 2L, null, 2);
+
+        assertThat(ids(page)).containsExactly(3L, 5L);
+        assertThat(page.nextCursor()).isEqualTo(5L);
+    }
+
+    @Test
+    void cursorResumesStrictlyAfterItself() {
+        summariesFound();
+
+        UserFollowService.FollowPage page = userFollowService.getMutualFriends(1L, 2L, 5L, 2);
+
+        assertThat(ids(page)).containsExactly(8L, 13L);
+        assertThat(page.nextCursor()).isEqualTo(13L);
+    }
+
+    @Test
+    void cursorNoLongerInTheSetResumesAtTheNextId() {
+        summariesFound();
+
+        UserFollowService.FollowPage page = userFollowService.getMutualFriends(1L, 2L, 9L, 2);
+
+        assertThat(ids(page)).containsExactly(13L, 21L);
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    void cursorPastTheEndReturnsAnEmptyPageWithoutQuerying() {
+        UserFollowService.FollowPage page = userFollowService.getMutualFriends(1L, 2L, 21L, 2);
+
+        assertThat(page.users()).isEmpty();
+        assertThat(page.nextCursor()).isNull();
+        verify(userRepository, never()).findSummariesByIdIn(anyCollection());
+    }
+
+    @Test
+    void usersWithoutSummariesAreSkippedButTheCursorStillAdvances() {
+        when(userRepository.findSummariesByIdIn(anyCollection()))
+            .thenReturn(List.of(new UserSummary(3L, "user3", null)));
+
+        UserFollowService.FollowPage page = userFollowService.getMutualFriends(1L, 2L, null, 2);
+
+        assertThat(ids(page)).containsExactly(3L);
+        assertThat(page.users().get(0).viewerFollows()).isTrue();
+        assertThat(page.nextCursor()).isEqualTo(5L);
+    }
+}